@@ -7,6 +7,9 @@ import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Set;
 
 @Component
@@ -45,10 +48,7 @@ public class DataInitializer implements CommandLineRunner {
             "Jammu and Kashmir", "Ladakh", "Sikkim", "Meghalaya", "Assam"
         };
 
-        for (String stateName : stateNames) {
-            State state = new State(stateName);
-            stateRepository.save(state);
-        }
+        stateRepository.saveAll(Arrays.stream(stateNames).map(State::new).toList());
         
         System.out.println("Initialized " + stateNames.length + " states");
     }
@@ -62,10 +62,7 @@ public class DataInitializer implements CommandLineRunner {
             "Photography", "Bird Watching", "Backpacking", "Hiking"
         };
 
-        for (String typeName : adventureTypeNames) {
-            AdventureType adventureType = new AdventureType(typeName);
-            adventureTypeRepository.save(adventureType);
-        }
+        adventureTypeRepository.saveAll(Arrays.stream(adventureTypeNames).map(AdventureType::new).toList());
         
         System.out.println("Initialized " + adventureTypeNames.length + " adventure types");
     }
@@ -86,6 +83,7 @@ public class DataInitializer implements CommandLineRunner {
             State rajasthan = stateRepository.findByName("Rajasthan").orElse(null);
 
             // Create hidden gems without adventure type associations for now
+            List<HiddenGem> gems = new ArrayList<>();
             if (maharashtra != null) {
                 HiddenGem gem1 = new HiddenGem();
                 gem1.setName("Harishchandragad Fort");
@@ -98,7 +96,7 @@ public class DataInitializer implements CommandLineRunner {
                 gem1.setDifficultyLevel("Moderate to Difficult");
                 gem1.setCostRange("₹500-1500 per person");
                 gem1.setImageUrls(Set.of("https://example.com/harishchandragad1.jpg", "https://example.com/harishchandragad2.jpg"));
-                hiddenGemRepository.save(gem1);
+                gems.add(gem1);
             }
 
             if (himachal != null) {
@@ -113,7 +111,7 @@ public class DataInitializer implements CommandLineRunner {
                 gem2.setDifficultyLevel("Easy to Moderate");
                 gem2.setCostRange("₹800-2000 per person");
                 gem2.setImageUrls(Set.of("https://example.com/tosh1.jpg"));
-                hiddenGemRepository.save(gem2);
+                gems.add(gem2);
             }
 
             if (uttarakhand != null) {
@@ -128,7 +126,7 @@ public class DataInitializer implements CommandLineRunner {
                 gem3.setDifficultyLevel("Easy to Moderate");
                 gem3.setCostRange("₹1000-2500 per person");
                 gem3.setImageUrls(Set.of("https://example.com/chopta1.jpg", "https://example.com/chopta2.jpg"));
-                hiddenGemRepository.save(gem3);
+                gems.add(gem3);
             }
 
             if (kerala != null) {
@@ -143,7 +141,7 @@ public class DataInitializer implements CommandLineRunner {
                 gem4.setDifficultyLevel("Easy");
                 gem4.setCostRange("₹300-800 per person");
                 gem4.setImageUrls(Set.of("https://example.com/kumta1.jpg"));
-                hiddenGemRepository.save(gem4);
+                gems.add(gem4);
             }
 
             if (rajasthan != null) {
@@ -158,9 +156,12 @@ public class DataInitializer implements CommandLineRunner {
                 gem5.setDifficultyLevel("Easy");
                 gem5.setCostRange("₹1500-3000 per person");
                 gem5.setImageUrls(Set.of("https://example.com/khimsar1.jpg", "https://example.com/khimsar2.jpg"));
-                hiddenGemRepository.save(gem5);
+                gems.add(gem5);
             }
 
+            // One transaction; the inserts go out as JDBC batches
+            hiddenGemRepository.saveAll(gems);
+
             System.out.println("Initialized sample hidden gems (without adventure type associations)");
         } catch (Exception e) {
             System.err.println("Error initializing hidden gems: " + e.getMessage());
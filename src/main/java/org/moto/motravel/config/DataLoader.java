@@ -11,6 +11,7 @@ import org.springframework.stereotype.Component;
 
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 
 @Component
 public class DataLoader implements CommandLineRunner {
@@ -45,7 +46,6 @@ public class DataLoader implements CommandLineRunner {
         admin.setEmail("admin@motravel.com");
         admin.setPassword(passwordEncoder.encode("admin123"));
         admin.setRoles(new HashSet<>(Arrays.asList("ROLE_ADMIN", "ROLE_USER")));
-        userRepository.save(admin);
 
         // Create regular user
         User user = new User();
@@ -53,7 +53,7 @@ public class DataLoader implements CommandLineRunner {
         user.setEmail("user@motravel.com");
         user.setPassword(passwordEncoder.encode("user123"));
         user.setRoles(new HashSet<>(Arrays.asList("ROLE_USER")));
-        userRepository.save(user);
+        userRepository.saveAll(List.of(admin, user));
 
         System.out.println("Test users loaded successfully!");
     }
@@ -72,7 +72,6 @@ public class DataLoader implements CommandLineRunner {
         car1.setHourlyPrice(25.0);
         car1.setImageUrl("https://example.com/tesla-model3.jpg");
         car1.setAvailability(true);
-        vehicleRepository.save(car1);
 
         // Vehicle 2 - Car
         Vehicle car2 = new Vehicle();
@@ -84,7 +83,6 @@ public class DataLoader implements CommandLineRunner {
         car2.setHourlyPrice(15.0);
         car2.setImageUrl("https://example.com/honda-civic.jpg");
         car2.setAvailability(true);
-        vehicleRepository.save(car2);
 
         // Vehicle 3 - Bike
         Vehicle bike1 = new Vehicle();
@@ -96,7 +94,6 @@ public class DataLoader implements CommandLineRunner {
         bike1.setHourlyPrice(10.0);
         bike1.setImageUrl("https://example.com/harley-street750.jpg");
         bike1.setAvailability(true);
-        vehicleRepository.save(bike1);
 
         // Vehicle 4 - Bike
         Vehicle bike2 = new Vehicle();
@@ -108,7 +105,6 @@ public class DataLoader implements CommandLineRunner {
         bike2.setHourlyPrice(12.0);
         bike2.setImageUrl("https://example.com/kawasaki-ninja650.jpg");
         bike2.setAvailability(true);
-        vehicleRepository.save(bike2);
 
         // Vehicle 5 - Car (not available)
         Vehicle car3 = new Vehicle();
@@ -120,7 +116,7 @@ public class DataLoader implements CommandLineRunner {
         car3.setHourlyPrice(30.0);
         car3.setImageUrl("https://example.com/bmw-x5.jpg");
         car3.setAvailability(false);
-        vehicleRepository.save(car3);
+        vehicleRepository.saveAll(List.of(car1, car2, bike1, bike2, car3));
 
         System.out.println("Test vehicles loaded successfully!");
     }
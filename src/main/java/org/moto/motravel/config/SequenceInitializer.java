@@ -0,0 +1,43 @@
+package org.moto.motravel.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Entity ids come from pooled sequences (allocation size 50) so inserts can be batched.
+ * Tables created before the switch were filled through IDENTITY columns, so each
+ * sequence is moved past the highest existing id before anything else is saved.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SequenceInitializer implements CommandLineRunner {
+
+    private static final int ALLOCATION_SIZE = 50;
+
+    // sequence -> table it supplies ids for
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "states_seq", "states",
+            "adventure_types_seq", "adventure_types",
+            "hidden_gems_seq", "hidden_gems",
+            "users_seq", "users",
+            "vehicles_seq", "vehicles",
+            "bookings_seq", "bookings");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(String... args) {
+        SEQUENCES.forEach((sequence, table) -> jdbcTemplate.queryForObject(
+                "SELECT setval('" + sequence + "', GREATEST(" +
+                "(SELECT COALESCE(MAX(id), 0) FROM " + table + ") + " + ALLOCATION_SIZE + ", " +
+                "(SELECT last_value FROM " + sequence + ")))",
+                Long.class));
+    }
+}
@@ -6,13 +6,19 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.moto.motravel.model.HiddenGem;
 import org.moto.motravel.payload.response.MessageResponse;
+import org.moto.motravel.service.HiddenGemImportService;
 import org.moto.motravel.service.HiddenGemService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
 @RequestMapping("/api/admin/hidden-gems")
@@ -24,6 +30,9 @@ public class AdminHiddenGemController {
     @Autowired
     private HiddenGemService hiddenGemService;
 
+    @Autowired
+    private HiddenGemImportService hiddenGemImportService;
+
     @PostMapping
     @Operation(summary = "Create a new hidden gem (Admin only)")
     public ResponseEntity<?> createHiddenGem(@Valid @RequestBody HiddenGem hiddenGem) {
@@ -66,6 +75,21 @@ public class AdminHiddenGemController {
         }
     }
 
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    @Operation(summary = "Bulk import hidden gems from a CSV or NDJSON body (Admin only)")
+    public ResponseEntity<?> importHiddenGems(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                              InputStream body) {
+        boolean csv = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.valueOf("text/csv"));
+        HiddenGemImportService.Format format = csv ? HiddenGemImportService.Format.CSV : HiddenGemImportService.Format.NDJSON;
+        try {
+            return ResponseEntity.ok(hiddenGemImportService.importHiddenGems(body, format));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Failed to read import: " + e.getMessage()));
+        }
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get hidden gem by ID (Admin view with all details)")
     public ResponseEntity<?> getHiddenGemById(@PathVariable Long id) {
@@ -74,6 +98,12 @@ public class AdminHiddenGemController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/cache-stats")
+    @Operation(summary = "Get hit ratio, load time and eviction counters of the gem detail cache (Admin only)")
+    public ResponseEntity<?> getDetailCacheStats() {
+        return ResponseEntity.ok(hiddenGemService.getDetailCacheStats());
+    }
+
     @GetMapping
     @Operation(summary = "Get all hidden gems for admin management")
     public ResponseEntity<?> getAllHiddenGemsForAdmin(
@@ -1,5 +1,6 @@
 package org.moto.motravel.controller;
 
+import jakarta.annotation.PostConstruct;
 import jakarta.validation.Valid;
 import org.moto.motravel.model.User;
 import org.moto.motravel.payload.request.LoginRequest;
@@ -8,19 +9,28 @@ import org.moto.motravel.payload.response.JwtResponse;
 import org.moto.motravel.payload.response.MessageResponse;
 import org.moto.motravel.repository.UserRepository;
 import org.moto.motravel.security.jwt.JwtUtils;
+import org.moto.motravel.security.services.PasswordHashingService;
+import org.moto.motravel.security.services.UserDetailsImpl;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
@@ -28,7 +38,7 @@ import java.util.stream.Collectors;
 @RequestMapping("/api/auth")
 public class AuthController {
     @Autowired
-    AuthenticationManager authenticationManager;
+    UserDetailsService userDetailsService;
 
     @Autowired
     UserRepository userRepository;
@@ -39,47 +49,100 @@ public class AuthController {
     @Autowired
     JwtUtils jwtUtils;
 
+    @Autowired
+    PasswordHashingService passwordHashingService;
+
+    // Boot's general-purpose task pool, so follow-up database work stays off the hashing pool
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    Executor taskExecutor;
+
+    private String userNotFoundPasswordHash;
+
+    @PostConstruct
+    void init() {
+        userNotFoundPasswordHash = encoder.encode("userNotFoundPassword");
+    }
+
+    /**
+     * The user is loaded on the request thread and only the BCrypt comparison runs on the
+     * hashing pool; the request thread is released while it waits, and a saturated pool
+     * answers 429 right away
+     */
     @PostMapping("/signin")
-    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword()));
-
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-        String jwt = jwtUtils.generateJwtToken(authentication);
-        
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        List<String> roles = userDetails.getAuthorities().stream()
-                .map(item -> item.getAuthority())
-                .collect(Collectors.toList());
-
-        User user = userRepository.findByUsername(userDetails.getUsername()).orElseThrow();
-
-        return ResponseEntity.ok(new JwtResponse(jwt,
-                                                 user.getId(),
-                                                 user.getUsername(),
-                                                 user.getEmail(),
-                                                 roles));
+    public CompletableFuture<ResponseEntity<?>> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
+        UserDetailsImpl userDetails = loadUser(loginRequest.getUsername());
+        // Unknown users are checked against a dummy hash so they take as long as a wrong password
+        String passwordHash = userDetails != null ? userDetails.getPassword() : userNotFoundPasswordHash;
+
+        CompletableFuture<Boolean> matched;
+        try {
+            matched = passwordHashingService.submit(() -> encoder.matches(loginRequest.getPassword(), passwordHash));
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(tooManyRequests("sign-in"));
+        }
+
+        return matched.thenApply(matches -> {
+            if (userDetails == null || !matches) {
+                throw new BadCredentialsException("Bad credentials");
+            }
+            userDetails.eraseCredentials();
+            Authentication authentication = new UsernamePasswordAuthenticationToken(
+                    userDetails, null, userDetails.getAuthorities());
+            String jwt = jwtUtils.generateJwtToken(authentication);
+
+            List<String> roles = userDetails.getAuthorities().stream()
+                    .map(item -> item.getAuthority())
+                    .collect(Collectors.toList());
+
+            return ResponseEntity.ok(new JwtResponse(jwt,
+                                                     userDetails.getId(),
+                                                     userDetails.getUsername(),
+                                                     userDetails.getEmail(),
+                                                     roles));
+        });
     }
 
+    /**
+     * Password hashing runs on the hashing pool; a saturated pool answers 429 right away.
+     * The user is saved on the application task pool so hashing threads only do BCrypt.
+     */
     @PostMapping("/signup")
-    public ResponseEntity<?> registerUser(@Valid @RequestBody SignupRequest signUpRequest) {
+    public CompletableFuture<ResponseEntity<?>> registerUser(@Valid @RequestBody SignupRequest signUpRequest) {
         if (userRepository.existsByUsername(signUpRequest.getUsername())) {
-            return ResponseEntity
+            return CompletableFuture.completedFuture(ResponseEntity
                     .badRequest()
-                    .body(new MessageResponse("Error: Username is already taken!"));
+                    .body(new MessageResponse("Error: Username is already taken!")));
         }
 
         if (userRepository.existsByEmail(signUpRequest.getEmail())) {
-            return ResponseEntity
+            return CompletableFuture.completedFuture(ResponseEntity
                     .badRequest()
-                    .body(new MessageResponse("Error: Email is already in use!"));
+                    .body(new MessageResponse("Error: Email is already in use!")));
+        }
+
+        CompletableFuture<String> hashed;
+        try {
+            hashed = passwordHashingService.submit(() -> encoder.encode(signUpRequest.getPassword()));
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(tooManyRequests("sign-up"));
         }
 
+        return hashed.thenApplyAsync(passwordHash -> createUser(signUpRequest, passwordHash), taskExecutor);
+    }
+
+    @GetMapping("/hashing-stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<PasswordHashingService.Stats> getHashingStats() {
+        return ResponseEntity.ok(passwordHashingService.stats());
+    }
+
+    private ResponseEntity<?> createUser(SignupRequest signUpRequest, String passwordHash) {
         // Create new user's account
         User user = new User();
         user.setUsername(signUpRequest.getUsername());
         user.setEmail(signUpRequest.getEmail());
-        user.setPassword(encoder.encode(signUpRequest.getPassword()));
+        user.setPassword(passwordHash);
 
         Set<String> strRoles = signUpRequest.getRoles();
         Set<String> roles = new HashSet<>();
@@ -103,4 +166,18 @@ public class AuthController {
 
         return ResponseEntity.ok(new MessageResponse("User registered successfully!"));
     }
+
+    private UserDetailsImpl loadUser(String username) {
+        try {
+            return (UserDetailsImpl) userDetailsService.loadUserByUsername(username);
+        } catch (UsernameNotFoundException e) {
+            return null;
+        }
+    }
+
+    private static ResponseEntity<?> tooManyRequests(String action) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new MessageResponse("Error: Too many " + action + " requests, please retry shortly"));
+    }
 }
@@ -6,6 +6,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.moto.motravel.model.Booking;
 import org.moto.motravel.payload.response.MessageResponse;
+import org.moto.motravel.security.services.UserDetailsImpl;
 import org.moto.motravel.service.BookingService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -13,7 +14,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
@@ -57,10 +57,8 @@ public class BookingController {
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
     @Operation(summary = "Get bookings for the current user", security = @SecurityRequirement(name = "bearerAuth"))
     public ResponseEntity<List<Booking>> getUserBookings() {
-        UserDetails userDetails = (UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        // In a real application, you would get the user ID from the authenticated user
-        // For simplicity, we're assuming the username is the user ID as a string
-        Long userId = Long.parseLong(userDetails.getUsername());
+        UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        Long userId = userDetails.getId();
         List<Booking> bookings = bookingService.getBookingsByUserId(userId);
         return ResponseEntity.ok(bookings);
     }
@@ -71,10 +69,8 @@ public class BookingController {
     public ResponseEntity<?> createBooking(@Valid @RequestBody Booking booking) {
         try {
             // Set the user ID from the authenticated user
-            UserDetails userDetails = (UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-            // In a real application, you would get the user ID from the authenticated user
-            // For simplicity, we're assuming the username is the user ID as a string
-            Long userId = Long.parseLong(userDetails.getUsername());
+            UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+            Long userId = userDetails.getId();
             booking.setUserId(userId);
             
             Booking createdBooking = bookingService.createBooking(booking);
@@ -149,8 +145,8 @@ public class BookingController {
         }
         
         // User can only access their own bookings
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        Long userId = Long.parseLong(userDetails.getUsername());
+        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+        Long userId = userDetails.getId();
         
         return booking.getUserId().equals(userId);
     }
@@ -4,21 +4,33 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import org.moto.motravel.model.HiddenGem;
+import org.moto.motravel.payload.response.CursorPageResponse;
+import org.moto.motravel.payload.response.HiddenGemClusterResponse;
+import org.moto.motravel.payload.response.HiddenGemStatsResponse;
+import org.moto.motravel.payload.response.HiddenGemSummary;
 import org.moto.motravel.payload.response.MessageResponse;
+import org.moto.motravel.payload.response.NearestHiddenGemResponse;
+import org.moto.motravel.security.services.UserDetailsImpl;
 import org.moto.motravel.service.HiddenGemBookmarkService;
+import org.moto.motravel.service.HiddenGemExportService;
 import org.moto.motravel.service.HiddenGemService;
+import org.moto.motravel.service.HiddenGemStatsService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
@@ -32,49 +44,95 @@ public class HiddenGemController {
     @Autowired
     private HiddenGemBookmarkService bookmarkService;
 
+    @Autowired
+    private HiddenGemStatsService statsService;
+
+    @Autowired
+    private HiddenGemExportService exportService;
+
     @GetMapping
     @Operation(summary = "Get all hidden gems with optional filtering and pagination")
-    public ResponseEntity<Page<HiddenGem>> getAllHiddenGems(
+    public ResponseEntity<?> getAllHiddenGems(
             @Parameter(description = "State ID for filtering") @RequestParam(required = false) Long stateId,
             @Parameter(description = "Adventure type IDs for filtering") @RequestParam(required = false) List<Long> adventureTypeIds,
             @Parameter(description = "Search term for name/description") @RequestParam(required = false) String search,
             @Parameter(description = "Page number (0-based)") @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Page size") @RequestParam(defaultValue = "10") int size,
             @Parameter(description = "Sort field") @RequestParam(defaultValue = "createdAt") String sortBy,
-            @Parameter(description = "Sort direction (asc/desc)") @RequestParam(defaultValue = "desc") String sortDirection) {
+            @Parameter(description = "Sort direction (asc/desc)") @RequestParam(defaultValue = "desc") String sortDirection,
+            @Parameter(description = "Keyset cursor; pass empty for the first page, then the returned nextCursor. " +
+                    "Pages are ordered by createdAt and carry no total count") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Also return gem counts per state and adventure type for these filters") @RequestParam(defaultValue = "false") boolean includeFacets) {
 
         // Validate and sanitize parameters
         sortBy = hiddenGemService.validateSortField(sortBy);
         sortDirection = hiddenGemService.validateSortDirection(sortDirection);
 
-        Page<HiddenGem> hiddenGems = hiddenGemService.searchHiddenGems(
+        if (cursor != null) {
+            try {
+                CursorPageResponse<HiddenGemSummary> hiddenGems = hiddenGemService.searchHiddenGemsByCursor(
+                        stateId, adventureTypeIds, search, cursor, size, sortDirection);
+                markBookmarked(hiddenGems.getContent());
+                return ResponseEntity.ok(hiddenGems);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+            }
+        }
+
+        Page<HiddenGemSummary> hiddenGems = hiddenGemService.searchHiddenGems(
                 stateId, adventureTypeIds, search, page, size, sortBy, sortDirection);
+        markBookmarked(hiddenGems.getContent());
 
+        if (includeFacets) {
+            return ResponseEntity.ok(Map.of(
+                "hiddenGems", hiddenGems,
+                "facets", hiddenGemService.getFacetCounts(stateId, adventureTypeIds, search)
+            ));
+        }
         return ResponseEntity.ok(hiddenGems);
     }
 
+    @GetMapping("/export")
+    @Operation(summary = "Stream the whole catalog, or gems updated since a time, as NDJSON (gzip if accepted)")
+    public ResponseEntity<StreamingResponseBody> exportHiddenGems(
+            @RequestParam(required = false) LocalDateTime updatedSince,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream gzipOut = new GZIPOutputStream(out, 1 << 16);
+                exportService.exportNdjson(gzipOut, updatedSince);
+                gzipOut.finish();
+            } else {
+                exportService.exportNdjson(out, updatedSince);
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get hidden gem by ID")
     public ResponseEntity<?> getHiddenGemById(@PathVariable Long id) {
-        return hiddenGemService.getHiddenGemById(id)
+        return hiddenGemService.getHiddenGemDetail(id)
                 .map(hiddenGem -> {
                     // Add bookmark status if user is authenticated
                     Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-                    if (auth != null && auth.isAuthenticated() && !"anonymousUser".equals(auth.getPrincipal())) {
-                        try {
-                            UserDetails userDetails = (UserDetails) auth.getPrincipal();
-                            Long userId = Long.parseLong(userDetails.getUsername());
-                            boolean isBookmarked = bookmarkService.isBookmarked(userId, id);
-                            
-                            return ResponseEntity.ok(Map.of(
-                                "hiddenGem", hiddenGem,
-                                "isBookmarked", isBookmarked,
-                                "bookmarkCount", bookmarkService.getHiddenGemBookmarkCount(id)
-                            ));
-                        } catch (Exception e) {
-                            // If user parsing fails, just return the gem without bookmark info
-                            return ResponseEntity.ok(hiddenGem);
-                        }
+                    if (auth != null && auth.isAuthenticated() && auth.getPrincipal() instanceof UserDetailsImpl userDetails) {
+                        boolean isBookmarked = bookmarkService.isBookmarked(userDetails.getId(), id);
+
+                        return ResponseEntity.ok(Map.of(
+                            "hiddenGem", hiddenGem,
+                            "isBookmarked", isBookmarked,
+                            "bookmarkCount", bookmarkService.getHiddenGemBookmarkCount(id)
+                        ));
                     }
                     return ResponseEntity.ok(hiddenGem);
                 })
@@ -83,27 +141,63 @@ public class HiddenGemController {
 
     @GetMapping("/nearby")
     @Operation(summary = "Find hidden gems near a location")
-    public ResponseEntity<List<HiddenGem>> findNearbyGems(
+    public ResponseEntity<List<HiddenGemSummary>> findNearbyGems(
             @Parameter(description = "Latitude") @RequestParam Double latitude,
             @Parameter(description = "Longitude") @RequestParam Double longitude,
             @Parameter(description = "Search radius in kilometers") @RequestParam(defaultValue = "50.0") Double radius) {
 
-        List<HiddenGem> nearbyGems = hiddenGemService.findNearbyGems(latitude, longitude, radius);
+        List<HiddenGemSummary> nearbyGems = hiddenGemService.findNearbyGems(latitude, longitude, radius);
+        markBookmarked(nearbyGems);
         return ResponseEntity.ok(nearbyGems);
     }
 
+    @GetMapping("/nearest")
+    @Operation(summary = "Find the k hidden gems closest to a location, sorted by distance")
+    public ResponseEntity<List<NearestHiddenGemResponse>> findNearestGems(
+            @Parameter(description = "Latitude") @RequestParam Double latitude,
+            @Parameter(description = "Longitude") @RequestParam Double longitude,
+            @Parameter(description = "Number of gems to return (max 100)") @RequestParam(defaultValue = "10") int k) {
+
+        List<NearestHiddenGemResponse> nearestGems = hiddenGemService.findNearestGems(latitude, longitude, k);
+        markBookmarked(nearestGems.stream().map(NearestHiddenGemResponse::getHiddenGem).collect(Collectors.toList()));
+        return ResponseEntity.ok(nearestGems);
+    }
+
+    @GetMapping("/clusters")
+    @Operation(summary = "Get map clusters of hidden gems for a bounding box and zoom level")
+    public ResponseEntity<?> getClusters(
+            @Parameter(description = "Bounding box as minLon,minLat,maxLon,maxLat") @RequestParam String bbox,
+            @Parameter(description = "Map zoom level (0-18)") @RequestParam int zoom) {
+
+        String[] parts = bbox.split(",");
+        if (parts.length != 4) {
+            return ResponseEntity.badRequest().body(new MessageResponse("bbox must be minLon,minLat,maxLon,maxLat"));
+        }
+        try {
+            double minLongitude = Double.parseDouble(parts[0].trim());
+            double minLatitude = Double.parseDouble(parts[1].trim());
+            double maxLongitude = Double.parseDouble(parts[2].trim());
+            double maxLatitude = Double.parseDouble(parts[3].trim());
+
+            List<HiddenGemClusterResponse> clusters = hiddenGemService.getClusters(
+                    minLatitude, minLongitude, maxLatitude, maxLongitude, zoom);
+            return ResponseEntity.ok(clusters);
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("bbox must be minLon,minLat,maxLon,maxLat"));
+        }
+    }
+
     @PostMapping("/{id}/bookmark")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
     @Operation(summary = "Bookmark a hidden gem", security = @SecurityRequirement(name = "bearerAuth"))
     public ResponseEntity<?> bookmarkHiddenGem(@PathVariable Long id) {
         try {
-            UserDetails userDetails = (UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-            Long userId = Long.parseLong(userDetails.getUsername());
+            UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+            Long userId = userDetails.getId();
 
-            bookmarkService.addBookmark(userId, id);
-            return ResponseEntity.ok(new MessageResponse("Hidden gem bookmarked successfully"));
-        } catch (IllegalStateException e) {
-            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+            boolean added = bookmarkService.addBookmark(userId, id);
+            return ResponseEntity.ok(new MessageResponse(added
+                    ? "Hidden gem bookmarked successfully" : "Hidden gem is already bookmarked"));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.notFound().build();
         } catch (Exception e) {
@@ -116,13 +210,12 @@ public class HiddenGemController {
     @Operation(summary = "Remove bookmark from a hidden gem", security = @SecurityRequirement(name = "bearerAuth"))
     public ResponseEntity<?> removeBookmark(@PathVariable Long id) {
         try {
-            UserDetails userDetails = (UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-            Long userId = Long.parseLong(userDetails.getUsername());
+            UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+            Long userId = userDetails.getId();
 
-            bookmarkService.removeBookmark(userId, id);
-            return ResponseEntity.ok(new MessageResponse("Bookmark removed successfully"));
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.notFound().build();
+            boolean removed = bookmarkService.removeBookmark(userId, id);
+            return ResponseEntity.ok(new MessageResponse(removed
+                    ? "Bookmark removed successfully" : "Hidden gem was not bookmarked"));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(new MessageResponse("Failed to remove bookmark"));
         }
@@ -133,8 +226,8 @@ public class HiddenGemController {
     @Operation(summary = "Toggle bookmark status for a hidden gem", security = @SecurityRequirement(name = "bearerAuth"))
     public ResponseEntity<?> toggleBookmark(@PathVariable Long id) {
         try {
-            UserDetails userDetails = (UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-            Long userId = Long.parseLong(userDetails.getUsername());
+            UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+            Long userId = userDetails.getId();
 
             boolean isBookmarked = bookmarkService.toggleBookmark(userId, id);
             String message = isBookmarked ? "Hidden gem bookmarked successfully" : "Bookmark removed successfully";
@@ -153,11 +246,19 @@ public class HiddenGemController {
 
     @GetMapping("/stats")
     @Operation(summary = "Get hidden gems statistics")
-    public ResponseEntity<Map<String, Object>> getStatistics() {
-        long totalCount = hiddenGemService.getTotalHiddenGemsCount();
-        
-        return ResponseEntity.ok(Map.of(
-            "totalHiddenGems", totalCount
-        ));
+    public ResponseEntity<HiddenGemStatsResponse> getStatistics() {
+        return ResponseEntity.ok(statsService.getStatistics());
+    }
+
+    /**
+     * Flag the gems the current user has bookmarked; anonymous callers get no flag
+     */
+    private void markBookmarked(List<HiddenGemSummary> summaries) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (summaries.isEmpty() || auth == null || !auth.isAuthenticated()
+                || !(auth.getPrincipal() instanceof UserDetailsImpl userDetails)) {
+            return;
+        }
+        bookmarkService.markBookmarked(userDetails.getId(), summaries);
     }
 }
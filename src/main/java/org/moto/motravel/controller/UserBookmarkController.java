@@ -4,14 +4,16 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import org.moto.motravel.model.HiddenGemBookmark;
+import org.moto.motravel.payload.request.BookmarkCheckRequest;
+import org.moto.motravel.security.services.UserDetailsImpl;
 import org.moto.motravel.service.HiddenGemBookmarkService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -37,8 +39,8 @@ public class UserBookmarkController {
             @Parameter(description = "Sort direction (asc/desc)") @RequestParam(defaultValue = "desc") String sortDirection) {
 
         try {
-            UserDetails userDetails = (UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-            Long userId = Long.parseLong(userDetails.getUsername());
+            UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+            Long userId = userDetails.getId();
 
             if (page == -1) {
                 // Return all bookmarks without pagination
@@ -61,8 +63,8 @@ public class UserBookmarkController {
     @Operation(summary = "Get user's bookmark count")
     public ResponseEntity<?> getUserBookmarkCount() {
         try {
-            UserDetails userDetails = (UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-            Long userId = Long.parseLong(userDetails.getUsername());
+            UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+            Long userId = userDetails.getId();
 
             long count = bookmarkService.getUserBookmarkCount(userId);
             return ResponseEntity.ok(Map.of("bookmarkCount", count));
@@ -75,8 +77,8 @@ public class UserBookmarkController {
     @Operation(summary = "Check if user has bookmarked a specific hidden gem")
     public ResponseEntity<?> checkBookmarkStatus(@PathVariable Long hiddenGemId) {
         try {
-            UserDetails userDetails = (UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-            Long userId = Long.parseLong(userDetails.getUsername());
+            UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+            Long userId = userDetails.getId();
 
             boolean isBookmarked = bookmarkService.isBookmarked(userId, hiddenGemId);
             return ResponseEntity.ok(Map.of(
@@ -87,4 +89,18 @@ public class UserBookmarkController {
             return ResponseEntity.badRequest().body(Map.of("error", "Failed to check bookmark status"));
         }
     }
+
+    @PostMapping("/check")
+    @Operation(summary = "Check the bookmark status of many hidden gems at once")
+    public ResponseEntity<?> checkBookmarkStatuses(@Valid @RequestBody BookmarkCheckRequest request) {
+        try {
+            UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+            Long userId = userDetails.getId();
+
+            Map<Long, Boolean> bookmarks = bookmarkService.areBookmarked(userId, request.getHiddenGemIds());
+            return ResponseEntity.ok(Map.of("bookmarks", bookmarks));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Failed to check bookmark status"));
+        }
+    }
 }
@@ -5,6 +5,7 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.moto.motravel.model.Vehicle;
+import org.moto.motravel.payload.response.AvailableVehicleResponse;
 import org.moto.motravel.payload.response.MessageResponse;
 import org.moto.motravel.service.VehicleService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,6 +14,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
@@ -56,6 +58,24 @@ public class VehicleController {
         return ResponseEntity.ok(vehicles);
     }
 
+    @GetMapping("/search")
+    @Operation(summary = "Find vehicles near a location that are free for a time range, sorted by distance or price")
+    public ResponseEntity<?> searchAvailableVehicles(
+            @RequestParam Double latitude,
+            @RequestParam Double longitude,
+            @RequestParam(defaultValue = "5.0") Double radius,
+            @RequestParam LocalDateTime startTime,
+            @RequestParam LocalDateTime endTime,
+            @RequestParam(required = false) String type,
+            @RequestParam(defaultValue = "distance") String sortBy) {
+        if (!endTime.isAfter(startTime)) {
+            return ResponseEntity.badRequest().body(new MessageResponse("endTime must be after startTime"));
+        }
+        List<AvailableVehicleResponse> vehicles = vehicleService.searchAvailableVehicles(
+                latitude, longitude, radius, startTime, endTime, type, sortBy);
+        return ResponseEntity.ok(vehicles);
+    }
+
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Add a new vehicle", security = @SecurityRequirement(name = "bearerAuth"))
@@ -12,7 +12,8 @@ import java.util.Set;
 @Table(name = "adventure_types")
 public class AdventureType {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "adventureType_seq")
+    @SequenceGenerator(name = "adventureType_seq", sequenceName = "adventure_types_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Adventure type name is required")
@@ -17,7 +17,8 @@ import java.time.LocalDateTime;
 public class Booking {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "booking_seq")
+    @SequenceGenerator(name = "booking_seq", sequenceName = "bookings_seq", allocationSize = 50)
     private Long id;
     
     @NotNull
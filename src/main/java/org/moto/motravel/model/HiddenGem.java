@@ -1,7 +1,9 @@
 package org.moto.motravel.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -10,10 +12,20 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "hidden_gems")
+@Table(name = "hidden_gems",
+       indexes = {
+           @Index(name = "idx_hidden_gems_location", columnList = "latitude, longitude"),
+           @Index(name = "idx_hidden_gems_created_at_id", columnList = "created_at, id"),
+           @Index(name = "idx_hidden_gems_updated_at", columnList = "updated_at")
+       })
 public class HiddenGem {
+    // Collections of a page of gems are loaded with IN queries of up to this many owners
+    // instead of one select per gem; paging with a collection JOIN FETCH would page in memory
+    private static final int COLLECTION_BATCH_SIZE = 100;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "hiddenGem_seq")
+    @SequenceGenerator(name = "hiddenGem_seq", sequenceName = "hidden_gems_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Hidden gem name is required")
@@ -31,7 +43,10 @@ public class HiddenGem {
     @NotNull(message = "State is required")
     private State state;
 
-    @ManyToMany(fetch = FetchType.EAGER, cascade = {CascadeType.PERSIST, CascadeType.MERGE})
+    // No cascade: adventure types are reference data managed on their own, and gems
+    // point at the shared snapshot instances
+    @ManyToMany(fetch = FetchType.EAGER)
+    @BatchSize(size = COLLECTION_BATCH_SIZE)
     @JoinTable(
         name = "hidden_gem_adventure_types",
         joinColumns = @JoinColumn(name = "hidden_gem_id"),
@@ -66,10 +81,17 @@ public class HiddenGem {
     private String costRange;
 
     @ElementCollection
+    @BatchSize(size = COLLECTION_BATCH_SIZE)
     @CollectionTable(name = "hidden_gem_images", joinColumns = @JoinColumn(name = "hidden_gem_id"))
     @Column(name = "image_url")
     private Set<String> imageUrls = new HashSet<>();
 
+    // Written only by the bookmark counters' periodic flush, never by entity saves
+    @JsonIgnore
+    @Column(name = "bookmark_count", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "bigint not null default 0")
+    private long bookmarkCount;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -196,6 +218,10 @@ public class HiddenGem {
         this.imageUrls = imageUrls;
     }
 
+    public long getBookmarkCount() {
+        return bookmarkCount;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -6,7 +6,8 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "hidden_gem_bookmarks")
+@Table(name = "hidden_gem_bookmarks",
+       indexes = @Index(name = "idx_hidden_gem_bookmarks_user_bookmarked_at", columnList = "user_id, bookmarked_at"))
 @IdClass(HiddenGemBookmarkId.class)
 public class HiddenGemBookmark {
     @Id
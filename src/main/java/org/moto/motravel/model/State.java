@@ -12,7 +12,8 @@ import java.util.Set;
 @Table(name = "states")
 public class State {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "state_seq")
+    @SequenceGenerator(name = "state_seq", sequenceName = "states_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "State name is required")
@@ -9,14 +9,18 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "vehicles")
+@Table(name = "vehicles",
+       indexes = {
+           @Index(name = "idx_vehicles_availability_location", columnList = "availability, latitude, longitude")
+       })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Vehicle {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "vehicle_seq")
+    @SequenceGenerator(name = "vehicle_seq", sequenceName = "vehicles_seq", allocationSize = 50)
     private Long id;
     
     @NotBlank
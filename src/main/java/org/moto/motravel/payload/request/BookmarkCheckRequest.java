@@ -0,0 +1,15 @@
+package org.moto.motravel.payload.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BookmarkCheckRequest {
+    @NotEmpty
+    @Size(max = 500)
+    private List<@NotNull Long> hiddenGemIds;
+}
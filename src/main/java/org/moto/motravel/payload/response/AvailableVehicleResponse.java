@@ -0,0 +1,14 @@
+package org.moto.motravel.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.moto.motravel.model.Vehicle;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailableVehicleResponse {
+    private Vehicle vehicle;
+    private double distanceKm;
+}
@@ -0,0 +1,14 @@
+package org.moto.motravel.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookmarkedGemResponse {
+    private Long hiddenGemId;
+    private String name;
+    private long bookmarkCount;
+}
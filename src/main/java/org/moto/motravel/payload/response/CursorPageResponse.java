@@ -0,0 +1,17 @@
+package org.moto.motravel.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageResponse<T> {
+    private List<T> content;
+    private int size;
+    private String nextCursor; // null on the last page
+    private boolean hasNext;
+}
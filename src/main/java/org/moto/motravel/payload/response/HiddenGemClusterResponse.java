@@ -0,0 +1,15 @@
+package org.moto.motravel.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HiddenGemClusterResponse {
+    private double latitude;
+    private double longitude;
+    private int count;
+    private Long hiddenGemId; // set only when the cluster holds a single gem
+}
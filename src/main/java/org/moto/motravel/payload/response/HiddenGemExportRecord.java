@@ -0,0 +1,32 @@
+package org.moto.motravel.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One line of the NDJSON catalog export
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HiddenGemExportRecord {
+    private Long id;
+    private String name;
+    private String description;
+    private Long stateId;
+    private String stateName;
+    private Double latitude;
+    private Double longitude;
+    private String nearestCity;
+    private String bestTimeToVisit;
+    private String difficultyLevel;
+    private String costRange;
+    private List<Long> adventureTypeIds;
+    private List<String> imageUrls;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
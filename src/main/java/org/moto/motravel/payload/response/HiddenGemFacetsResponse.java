@@ -0,0 +1,16 @@
+package org.moto.motravel.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HiddenGemFacetsResponse {
+    private long total;
+    private Map<Long, Long> states; // state ID -> matching gems
+    private Map<Long, Long> adventureTypes; // adventure type ID -> matching gems
+}
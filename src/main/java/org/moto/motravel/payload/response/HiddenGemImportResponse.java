@@ -0,0 +1,28 @@
+package org.moto.motravel.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HiddenGemImportResponse {
+    private long totalRows;
+    private long imported;
+    private long failed;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+    private List<RowError> errors; // at most app.hidden-gems.import.max-reported-errors
+    private boolean errorsTruncated;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long row; // 1-based data row, not counting the CSV header
+        private String message;
+    }
+}
@@ -0,0 +1,19 @@
+package org.moto.motravel.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HiddenGemStatsResponse {
+    private long totalHiddenGems;
+    private Map<String, Long> byState;
+    private Map<String, Long> byAdventureType;
+    private Map<String, Long> byDifficulty;
+    private List<BookmarkedGemResponse> mostBookmarked;
+}
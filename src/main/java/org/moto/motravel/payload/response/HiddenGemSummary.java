@@ -0,0 +1,44 @@
+package org.moto.motravel.payload.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * List-view shape of a hidden gem. The scalar columns come straight from a JPQL
+ * constructor expression; the first image and adventure type ids are filled in
+ * afterwards with one batched query each for the whole page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HiddenGemSummary {
+    private Long id;
+    private String name;
+    private String stateName;
+    private Double latitude;
+    private Double longitude;
+    private LocalDateTime createdAt;
+    private String firstImageUrl;
+    private Set<Long> adventureTypeIds = new HashSet<>();
+
+    // Only set, and only serialized, for authenticated callers
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean isBookmarked;
+
+    // Used by the repository's constructor-expression queries
+    public HiddenGemSummary(Long id, String name, String stateName, Double latitude, Double longitude,
+                            LocalDateTime createdAt) {
+        this.id = id;
+        this.name = name;
+        this.stateName = stateName;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.createdAt = createdAt;
+    }
+}
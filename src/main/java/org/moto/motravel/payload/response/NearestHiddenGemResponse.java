@@ -0,0 +1,13 @@
+package org.moto.motravel.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NearestHiddenGemResponse {
+    private HiddenGemSummary hiddenGem;
+    private double distanceKm;
+}
@@ -21,6 +21,9 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     // Find bookings by status
     List<Booking> findByStatus(String status);
     
+    // Find bookings whose status differs from the given one
+    List<Booking> findByStatusNot(String status);
+    
     // Find bookings by user ID and status
     List<Booking> findByUserIdAndStatus(Long userId, String status);
     
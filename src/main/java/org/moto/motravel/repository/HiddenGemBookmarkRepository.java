@@ -5,9 +5,11 @@ import org.moto.motravel.model.HiddenGemBookmarkId;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -29,11 +31,57 @@ public interface HiddenGemBookmarkRepository extends JpaRepository<HiddenGemBook
     // Count bookmarks for a hidden gem
     long countByHiddenGemId(Long hiddenGemId);
     
-    // Get user's bookmarked gems with full gem details
-    @Query("SELECT b FROM HiddenGemBookmark b JOIN FETCH b.hiddenGem h JOIN FETCH h.state JOIN FETCH h.adventureTypes WHERE b.userId = :userId ORDER BY b.bookmarkedAt DESC")
+    // Insert a bookmark unless it exists; returns 1 if inserted, 0 if it was already there.
+    // The foreign key on hidden_gem_id rejects unknown gems.
+    @Modifying
+    @Query(value = "INSERT INTO hidden_gem_bookmarks (user_id, hidden_gem_id, bookmarked_at) " +
+                   "VALUES (:userId, :hiddenGemId, CURRENT_TIMESTAMP) ON CONFLICT DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("userId") Long userId, @Param("hiddenGemId") Long hiddenGemId);
+    
+    // Returns 1 if a bookmark was deleted, 0 if there was none
+    @Modifying
+    @Query(value = "DELETE FROM hidden_gem_bookmarks WHERE user_id = :userId AND hidden_gem_id = :hiddenGemId",
+           nativeQuery = true)
+    int deleteByUserIdAndHiddenGemId(@Param("userId") Long userId, @Param("hiddenGemId") Long hiddenGemId);
+    
+    // Delete the bookmark if present, otherwise insert it, in one statement. Returns the change
+    // in rows: 1 added, -1 removed, 0 when a concurrent request inserted it first (so it is bookmarked).
+    // The statement returns a row, so it runs as a query rather than through @Modifying (executeUpdate
+    // rejects a result); @Transactional keeps it off the read-only default of repository queries.
+    @Transactional
+    @Query(value = "WITH deleted AS (" +
+                   "  DELETE FROM hidden_gem_bookmarks WHERE user_id = :userId AND hidden_gem_id = :hiddenGemId" +
+                   "  RETURNING hidden_gem_id), " +
+                   "inserted AS (" +
+                   "  INSERT INTO hidden_gem_bookmarks (user_id, hidden_gem_id, bookmarked_at)" +
+                   "  SELECT :userId, :hiddenGemId, CURRENT_TIMESTAMP WHERE NOT EXISTS (SELECT 1 FROM deleted)" +
+                   "  ON CONFLICT DO NOTHING RETURNING hidden_gem_id) " +
+                   "SELECT CAST((SELECT COUNT(*) FROM inserted) - (SELECT COUNT(*) FROM deleted) AS INTEGER)",
+           nativeQuery = true)
+    int toggle(@Param("userId") Long userId, @Param("hiddenGemId") Long hiddenGemId);
+    
+    // (gem id, bookmark count) for every bookmarked gem
+    @Query("SELECT b.hiddenGemId, COUNT(b) FROM HiddenGemBookmark b GROUP BY b.hiddenGemId")
+    List<Object[]> countGroupedByHiddenGemId();
+    
+    // Get user's bookmarked gems with full gem details; adventure types and images are
+    // batch-fetched, so gems without adventure types are kept
+    @Query("SELECT b FROM HiddenGemBookmark b JOIN FETCH b.hiddenGem h JOIN FETCH h.state WHERE b.userId = :userId ORDER BY b.bookmarkedAt DESC")
     List<HiddenGemBookmark> findByUserIdWithGemDetails(@Param("userId") Long userId);
     
-    // Get user's bookmarked gems with pagination and full details
-    @Query("SELECT b FROM HiddenGemBookmark b JOIN FETCH b.hiddenGem h JOIN FETCH h.state JOIN FETCH h.adventureTypes WHERE b.userId = :userId")
-    Page<HiddenGemBookmark> findByUserIdWithGemDetails(@Param("userId") Long userId, Pageable pageable);
+    // Every gem id a user has bookmarked, used to build the per-user sorted id set
+    @Query("SELECT b.hiddenGemId FROM HiddenGemBookmark b WHERE b.userId = :userId")
+    List<Long> findAllHiddenGemIdsByUserId(@Param("userId") Long userId);
+    
+    // First phase of bookmark pagination: page through the gem ids alone, which
+    // idx_hidden_gem_bookmarks_user_bookmarked_at answers without touching the gems
+    @Query(value = "SELECT b.hiddenGemId FROM HiddenGemBookmark b WHERE b.userId = :userId",
+           countQuery = "SELECT COUNT(b) FROM HiddenGemBookmark b WHERE b.userId = :userId")
+    Page<Long> findHiddenGemIdsByUserId(@Param("userId") Long userId, Pageable pageable);
+    
+    // Second phase: load one page of bookmarks with their gems
+    @Query("SELECT b FROM HiddenGemBookmark b JOIN FETCH b.hiddenGem h JOIN FETCH h.state WHERE b.userId = :userId AND b.hiddenGemId IN :hiddenGemIds")
+    List<HiddenGemBookmark> findByUserIdAndHiddenGemIdInWithGemDetails(@Param("userId") Long userId,
+                                                                      @Param("hiddenGemIds") List<Long> hiddenGemIds);
 }
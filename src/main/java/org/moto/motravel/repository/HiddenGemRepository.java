@@ -1,58 +1,190 @@
 package org.moto.motravel.repository;
 
 import org.moto.motravel.model.HiddenGem;
+import org.moto.motravel.payload.response.HiddenGemSummary;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface HiddenGemRepository extends JpaRepository<HiddenGem, Long> {
     
+    // List views select only the summary columns; no entity or EAGER relation is loaded
+    String SUMMARY_SELECT =
+           "SELECT new org.moto.motravel.payload.response.HiddenGemSummary(" +
+           "h.id, h.name, s.name, h.latitude, h.longitude, h.createdAt) FROM HiddenGem h JOIN h.state s";
+    
+    // Optional filters shared by the summary searches; the adventure type filter uses
+    // EXISTS instead of a join so no DISTINCT is needed
+    String SEARCH_FILTERS =
+           "(:stateId IS NULL OR h.state.id = :stateId) AND " +
+           "(:adventureTypeIds IS NULL OR EXISTS (SELECT 1 FROM HiddenGem g JOIN g.adventureTypes a " +
+           "WHERE g.id = h.id AND a.id IN :adventureTypeIds)) AND " +
+           "(:searchTerm IS NULL OR " +
+           "UPPER(h.name) LIKE UPPER(CONCAT('%', :searchTerm, '%')) OR " +
+           "UPPER(h.description) LIKE UPPER(CONCAT('%', :searchTerm, '%')))";
+    
+    // Full gems for management views. The state is joined into the page query; adventure
+    // types and images are batch-fetched (see HiddenGem), so a page costs a fixed number of selects
+    @Override
+    @EntityGraph(attributePaths = "state")
+    Page<HiddenGem> findAll(Pageable pageable);
+    
+    // All gems as summaries
+    @Query(value = SUMMARY_SELECT, countQuery = "SELECT COUNT(h) FROM HiddenGem h")
+    Page<HiddenGemSummary> findAllSummaries(Pageable pageable);
+    
+    // Summaries by id, in no particular order
+    @Query(SUMMARY_SELECT + " WHERE h.id IN :ids")
+    List<HiddenGemSummary> findSummariesByIdIn(@Param("ids") List<Long> ids);
+    
+    // One page of the given gems, in the order of the pageable's sort
+    @Query(SUMMARY_SELECT + " WHERE h.id IN :ids")
+    List<HiddenGemSummary> findSummariesByIdIn(@Param("ids") List<Long> ids, Pageable pageable);
+    
     // Find by state
-    Page<HiddenGem> findByStateId(Long stateId, Pageable pageable);
+    @Query(value = SUMMARY_SELECT + " WHERE h.state.id = :stateId",
+           countQuery = "SELECT COUNT(h) FROM HiddenGem h WHERE h.state.id = :stateId")
+    Page<HiddenGemSummary> findSummariesByStateId(@Param("stateId") Long stateId, Pageable pageable);
     
     // Find by adventure types
-    @Query("SELECT DISTINCT h FROM HiddenGem h JOIN h.adventureTypes a WHERE a.id IN :adventureTypeIds")
-    Page<HiddenGem> findByAdventureTypeIds(@Param("adventureTypeIds") List<Long> adventureTypeIds, Pageable pageable);
+    @Query(value = SUMMARY_SELECT + " WHERE EXISTS (SELECT 1 FROM HiddenGem g JOIN g.adventureTypes a " +
+                   "WHERE g.id = h.id AND a.id IN :adventureTypeIds)",
+           countQuery = "SELECT COUNT(h) FROM HiddenGem h WHERE EXISTS (SELECT 1 FROM HiddenGem g " +
+                   "JOIN g.adventureTypes a WHERE g.id = h.id AND a.id IN :adventureTypeIds)")
+    Page<HiddenGemSummary> findSummariesByAdventureTypeIds(@Param("adventureTypeIds") List<Long> adventureTypeIds,
+                                                          Pageable pageable);
     
-    // Find by state and adventure types
-    @Query("SELECT DISTINCT h FROM HiddenGem h JOIN h.adventureTypes a WHERE h.state.id = :stateId AND a.id IN :adventureTypeIds")
-    Page<HiddenGem> findByStateIdAndAdventureTypeIds(@Param("stateId") Long stateId, @Param("adventureTypeIds") List<Long> adventureTypeIds, Pageable pageable);
+    // Complex search with all filters
+    @Query(value = SUMMARY_SELECT + " WHERE " + SEARCH_FILTERS,
+           countQuery = "SELECT COUNT(h) FROM HiddenGem h WHERE " + SEARCH_FILTERS)
+    Page<HiddenGemSummary> findWithFilters(@Param("stateId") Long stateId, 
+                                           @Param("adventureTypeIds") List<Long> adventureTypeIds, 
+                                           @Param("searchTerm") String searchTerm, 
+                                           Pageable pageable);
     
-    // Search by name or description
-    @Query("SELECT h FROM HiddenGem h WHERE LOWER(h.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR LOWER(h.description) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
-    Page<HiddenGem> findByNameOrDescriptionContainingIgnoreCase(@Param("searchTerm") String searchTerm, Pageable pageable);
-    
-    // Complex search with all filters - simplified to avoid Hibernate parsing issues
-    @Query("SELECT DISTINCT h FROM HiddenGem h LEFT JOIN h.adventureTypes a WHERE " +
-           "(:stateId IS NULL OR h.state.id = :stateId) AND " +
-           "(:adventureTypeIds IS NULL OR a.id IN :adventureTypeIds) AND " +
-           "(:searchTerm IS NULL OR " +
-           "UPPER(h.name) LIKE UPPER(CONCAT('%', :searchTerm, '%')) OR " +
-           "UPPER(h.description) LIKE UPPER(CONCAT('%', :searchTerm, '%')))")
-    Page<HiddenGem> findWithFilters(@Param("stateId") Long stateId, 
-                                   @Param("adventureTypeIds") List<Long> adventureTypeIds, 
-                                   @Param("searchTerm") String searchTerm, 
-                                   Pageable pageable);
-    
-    // Find nearby gems within radius (in kilometers)
-    @Query("SELECT h FROM HiddenGem h WHERE " +
+    // Find nearby gems within radius (in kilometers); the bounding box lets the
+    // (latitude, longitude) index narrow the rows before the trig is evaluated
+    @Query(SUMMARY_SELECT + " WHERE " +
+           "h.latitude BETWEEN :minLatitude AND :maxLatitude AND " +
+           "h.longitude BETWEEN :minLongitude AND :maxLongitude AND " +
            "(6371 * acos(cos(radians(:latitude)) * cos(radians(h.latitude)) * " +
            "cos(radians(h.longitude) - radians(:longitude)) + " +
            "sin(radians(:latitude)) * sin(radians(h.latitude)))) <= :radius")
-    List<HiddenGem> findNearbyGems(@Param("latitude") Double latitude, 
-                                  @Param("longitude") Double longitude, 
-                                  @Param("radius") Double radius);
+    List<HiddenGemSummary> findNearbyGems(@Param("latitude") Double latitude, 
+                                          @Param("longitude") Double longitude, 
+                                          @Param("radius") Double radius,
+                                          @Param("minLatitude") Double minLatitude,
+                                          @Param("maxLatitude") Double maxLatitude,
+                                          @Param("minLongitude") Double minLongitude,
+                                          @Param("maxLongitude") Double maxLongitude);
+    
+    // Gems closest to a point, for use before the nearest-neighbour index is loaded. Ordered
+    // by the Haversine term under the square root, which ranks like the distance itself
+    @Query(SUMMARY_SELECT + " ORDER BY " +
+           "sin(radians(h.latitude - :latitude) / 2) * sin(radians(h.latitude - :latitude) / 2) + " +
+           "cos(radians(:latitude)) * cos(radians(h.latitude)) * " +
+           "sin(radians(h.longitude - :longitude) / 2) * sin(radians(h.longitude - :longitude) / 2), h.id")
+    List<HiddenGemSummary> findNearestSummaries(@Param("latitude") Double latitude,
+                                                @Param("longitude") Double longitude,
+                                                Pageable pageable);
+    
+    // Coordinates of every gem, used to build the in-memory nearest-neighbour index
+    @Query("SELECT h.id, h.latitude, h.longitude FROM HiddenGem h")
+    List<Object[]> findAllCoordinates();
+    
+    // Keyset pagination on (createdAt, id). List return types skip the count query and the
+    // seek predicate lets idx_hidden_gems_created_at_id start at the cursor on every page.
+    @Query(SUMMARY_SELECT + " WHERE " + SEARCH_FILTERS +
+           " ORDER BY h.createdAt DESC, h.id DESC")
+    List<HiddenGemSummary> findFirstKeysetPageDesc(@Param("stateId") Long stateId,
+                                                   @Param("adventureTypeIds") List<Long> adventureTypeIds,
+                                                   @Param("searchTerm") String searchTerm,
+                                                   Pageable pageable);
+    
+    @Query(SUMMARY_SELECT + " WHERE " + SEARCH_FILTERS +
+           " AND (h.createdAt < :createdAt OR (h.createdAt = :createdAt AND h.id < :id))" +
+           " ORDER BY h.createdAt DESC, h.id DESC")
+    List<HiddenGemSummary> findKeysetPageDescAfter(@Param("stateId") Long stateId,
+                                                   @Param("adventureTypeIds") List<Long> adventureTypeIds,
+                                                   @Param("searchTerm") String searchTerm,
+                                                   @Param("createdAt") LocalDateTime createdAt,
+                                                   @Param("id") Long id,
+                                                   Pageable pageable);
+    
+    @Query(SUMMARY_SELECT + " WHERE " + SEARCH_FILTERS +
+           " ORDER BY h.createdAt ASC, h.id ASC")
+    List<HiddenGemSummary> findFirstKeysetPageAsc(@Param("stateId") Long stateId,
+                                                  @Param("adventureTypeIds") List<Long> adventureTypeIds,
+                                                  @Param("searchTerm") String searchTerm,
+                                                  Pageable pageable);
+    
+    @Query(SUMMARY_SELECT + " WHERE " + SEARCH_FILTERS +
+           " AND (h.createdAt > :createdAt OR (h.createdAt = :createdAt AND h.id > :id))" +
+           " ORDER BY h.createdAt ASC, h.id ASC")
+    List<HiddenGemSummary> findKeysetPageAscAfter(@Param("stateId") Long stateId,
+                                                  @Param("adventureTypeIds") List<Long> adventureTypeIds,
+                                                  @Param("searchTerm") String searchTerm,
+                                                  @Param("createdAt") LocalDateTime createdAt,
+                                                  @Param("id") Long id,
+                                                  Pageable pageable);
+    
+    // (gem id, first image url) pairs for a page of summaries; gems without images are absent
+    @Query("SELECT h.id, MIN(i) FROM HiddenGem h JOIN h.imageUrls i WHERE h.id IN :ids GROUP BY h.id")
+    List<Object[]> findFirstImageUrls(@Param("ids") List<Long> ids);
+    
+    // (gem id, adventure type id) pairs for a page of summaries
+    @Query("SELECT h.id, a.id FROM HiddenGem h JOIN h.adventureTypes a WHERE h.id IN :ids")
+    List<Object[]> findAdventureTypeIdsByGemIds(@Param("ids") List<Long> ids);
+    
+    // Text columns of every gem, used to build the in-memory full-text index
+    @Query("SELECT h.id, h.name, h.description, h.nearestCity FROM HiddenGem h")
+    List<Object[]> findAllSearchableText();
+    
+    // (gem id, state id) pairs, used to build the in-memory facet bitmaps
+    @Query("SELECT h.id, h.state.id FROM HiddenGem h")
+    List<Object[]> findAllStateIds();
+    
+    // (gem id, adventure type id) pairs, used to build the in-memory facet bitmaps
+    @Query("SELECT h.id, a.id FROM HiddenGem h JOIN h.adventureTypes a")
+    List<Object[]> findAllAdventureTypeIds();
+    
+    // Facet counts for use before the in-memory facet index is loaded
+    @Query("SELECT COUNT(h) FROM HiddenGem h WHERE " + SEARCH_FILTERS)
+    long countWithFilters(@Param("stateId") Long stateId,
+                          @Param("adventureTypeIds") List<Long> adventureTypeIds,
+                          @Param("searchTerm") String searchTerm);
+    
+    @Query("SELECT h.state.id, COUNT(h) FROM HiddenGem h WHERE " + SEARCH_FILTERS + " GROUP BY h.state.id")
+    List<Object[]> countByStateWithFilters(@Param("stateId") Long stateId,
+                                           @Param("adventureTypeIds") List<Long> adventureTypeIds,
+                                           @Param("searchTerm") String searchTerm);
+    
+    @Query("SELECT a.id, COUNT(h) FROM HiddenGem h JOIN h.adventureTypes a WHERE " + SEARCH_FILTERS +
+           " GROUP BY a.id")
+    List<Object[]> countByAdventureTypeWithFilters(@Param("stateId") Long stateId,
+                                                   @Param("adventureTypeIds") List<Long> adventureTypeIds,
+                                                   @Param("searchTerm") String searchTerm);
     
-    // Count by state
-    long countByStateId(Long stateId);
+    // Columns the statistics aggregator counts by, used to reconcile its counters
+    @Query("SELECT h.id, h.name, h.state.id, h.difficultyLevel FROM HiddenGem h")
+    List<Object[]> findAllStatisticsFacts();
     
-    // Count by adventure type
-    @Query("SELECT COUNT(DISTINCT h) FROM HiddenGem h JOIN h.adventureTypes a WHERE a.id = :adventureTypeId")
-    long countByAdventureTypeId(@Param("adventureTypeId") Long adventureTypeId);
+    // Bring every persisted bookmark count in line with the bookmarks table; only rows whose
+    // count is off are written, so a restart after a clean shutdown rewrites nothing
+    @Modifying
+    @Query(value = "UPDATE hidden_gems h SET bookmark_count = " +
+                   "(SELECT COUNT(*) FROM hidden_gem_bookmarks b WHERE b.hidden_gem_id = h.id) " +
+                   "WHERE h.bookmark_count IS DISTINCT FROM " +
+                   "(SELECT COUNT(*) FROM hidden_gem_bookmarks b WHERE b.hidden_gem_id = h.id)",
+           nativeQuery = true)
+    int recomputeBookmarkCounts();
 }
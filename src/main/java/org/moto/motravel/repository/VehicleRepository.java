@@ -1,12 +1,15 @@
 package org.moto.motravel.repository;
 
+import jakarta.persistence.LockModeType;
 import org.moto.motravel.model.Vehicle;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface VehicleRepository extends JpaRepository<Vehicle, Long> {
@@ -14,17 +17,30 @@ public interface VehicleRepository extends JpaRepository<Vehicle, Long> {
     // Find vehicles by availability
     List<Vehicle> findByAvailability(Boolean availability);
     
-    // Custom query to find vehicles within a certain radius using Haversine formula
+    // Find a vehicle and lock its row (SELECT ... FOR UPDATE) until the transaction ends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT v FROM Vehicle v WHERE v.id = :id")
+    Optional<Vehicle> findByIdForUpdate(@Param("id") Long id);
+    
+    // Custom query to find vehicles within a certain radius using Haversine formula.
+    // The bounding box predicates are sargable against idx_vehicles_availability_location,
+    // so the trig only runs on the rows inside the box.
     @Query(value = 
         "SELECT * FROM vehicles v WHERE " +
-        "(6371 * acos(cos(radians(:latitude)) * cos(radians(v.latitude)) * " +
+        "v.availability = true " +
+        "AND v.latitude BETWEEN :minLatitude AND :maxLatitude " +
+        "AND v.longitude BETWEEN :minLongitude AND :maxLongitude " +
+        "AND (6371 * acos(cos(radians(:latitude)) * cos(radians(v.latitude)) * " +
         "cos(radians(v.longitude) - radians(:longitude)) + " +
-        "sin(radians(:latitude)) * sin(radians(v.latitude)))) < :radius " +
-        "AND v.availability = true", 
+        "sin(radians(:latitude)) * sin(radians(v.latitude)))) < :radius", 
         nativeQuery = true)
     List<Vehicle> findVehiclesNearLocation(
         @Param("latitude") Double latitude, 
         @Param("longitude") Double longitude, 
-        @Param("radius") Double radius
+        @Param("radius") Double radius,
+        @Param("minLatitude") Double minLatitude,
+        @Param("maxLatitude") Double maxLatitude,
+        @Param("minLongitude") Double minLongitude,
+        @Param("maxLongitude") Double maxLongitude
     );
 }
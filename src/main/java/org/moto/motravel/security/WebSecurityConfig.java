@@ -1,6 +1,7 @@
 package org.moto.motravel.security;
 
 import org.moto.motravel.security.jwt.AuthTokenFilter;
+import org.moto.motravel.security.ratelimit.RateLimitFilter;
 import org.moto.motravel.security.services.UserDetailsServiceImpl;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
@@ -30,6 +31,11 @@ public class WebSecurityConfig {
         return new AuthTokenFilter();
     }
 
+    @Bean
+    public RateLimitFilter rateLimitFilter() {
+        return new RateLimitFilter();
+    }
+
     @Bean
     public DaoAuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
@@ -66,10 +72,13 @@ public class WebSecurityConfig {
                     .requestMatchers(new AntPathRequestMatcher("/api/vehicles/*", "GET")).permitAll()
                     .requestMatchers(new AntPathRequestMatcher("/api/vehicles/available", "GET")).permitAll()
                     .requestMatchers(new AntPathRequestMatcher("/api/vehicles/nearby", "GET")).permitAll()
+                    .requestMatchers(new AntPathRequestMatcher("/api/vehicles/search", "GET")).permitAll()
                     // Allow public access to hidden gems browsing endpoints
                     .requestMatchers(new AntPathRequestMatcher("/api/hidden-gems", "GET")).permitAll()
                     .requestMatchers(new AntPathRequestMatcher("/api/hidden-gems/*", "GET")).permitAll()
                     .requestMatchers(new AntPathRequestMatcher("/api/hidden-gems/nearby", "GET")).permitAll()
+                    .requestMatchers(new AntPathRequestMatcher("/api/hidden-gems/nearest", "GET")).permitAll()
+                    .requestMatchers(new AntPathRequestMatcher("/api/hidden-gems/clusters", "GET")).permitAll()
                     .requestMatchers(new AntPathRequestMatcher("/api/hidden-gems/stats", "GET")).permitAll()
                     .requestMatchers(new AntPathRequestMatcher("/api/states", "GET")).permitAll()
                     .requestMatchers(new AntPathRequestMatcher("/api/states/*", "GET")).permitAll()
@@ -87,6 +96,7 @@ public class WebSecurityConfig {
         
         http.authenticationProvider(authenticationProvider());
         http.addFilterBefore(authenticationJwtTokenFilter(), UsernamePasswordAuthenticationFilter.class);
+        http.addFilterAfter(rateLimitFilter(), AuthTokenFilter.class);
         
         return http.build();
     }
@@ -2,55 +2,122 @@ package org.moto.motravel.security.jwt;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SecurityException;
+import jakarta.annotation.PostConstruct;
+import org.moto.motravel.security.services.UserDetailsImpl;
+import org.moto.motravel.service.cache.ExpiringLruCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.time.Duration;
 import java.util.Date;
+import java.util.List;
 
+/**
+ * Issues and verifies JWTs. Tokens carry the user id and roles as claims, so a request
+ * is authenticated from the token alone without loading the user. The signing key and
+ * parser are built once, and verified tokens can be kept in a small bounded cache.
+ */
 @Component
 public class JwtUtils {
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String EMAIL_CLAIM = "email";
+    private static final String ROLES_CLAIM = "roles";
+
     @Value("${app.jwt.secret}")
     private String jwtSecret;
 
     @Value("${app.jwt.expiration}")
     private int jwtExpirationMs;
 
+    @Value("${app.jwt.verified-token-cache.max-entries:10000}")
+    private int verifiedTokenCacheMaxEntries;
+
+    @Value("${app.jwt.verified-token-cache.ttl-seconds:300}")
+    private long verifiedTokenCacheTtlSeconds;
+
+    private Key key;
+
+    private JwtParser parser;
+
+    // Null when disabled with max-entries=0
+    private ExpiringLruCache<String, VerifiedToken> verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parserBuilder().setSigningKey(key).build();
+        if (verifiedTokenCacheMaxEntries > 0) {
+            verifiedTokens = new ExpiringLruCache<>(verifiedTokenCacheMaxEntries,
+                    Duration.ofSeconds(verifiedTokenCacheTtlSeconds));
+        }
+    }
+
     public String generateJwtToken(Authentication authentication) {
-        UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
+        UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
+        List<String> roles = userPrincipal.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
+        Date now = new Date();
 
         return Jwts.builder()
                 .setSubject(userPrincipal.getUsername())
-                .setIssuedAt(new Date())
-                .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(key(), SignatureAlgorithm.HS256)
+                .claim(USER_ID_CLAIM, userPrincipal.getId())
+                .claim(EMAIL_CLAIM, userPrincipal.getEmail())
+                .claim(ROLES_CLAIM, roles)
+                .setIssuedAt(now)
+                .setExpiration(new Date(now.getTime() + jwtExpirationMs))
+                .signWith(key, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    private Key key() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-    }
-
-    public String getUserNameFromJwtToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+    /**
+     * Verify the token and return the user it was issued to, or null if it is invalid,
+     * expired or predates the id and role claims (the user has to sign in again)
+     */
+    public UserDetailsImpl getUserFromJwtToken(String authToken) {
+        VerifiedToken verified = verifiedTokens != null
+                ? verifiedTokens.get(authToken, this::verify)
+                : verify(authToken);
+        if (verified == null) {
+            return null;
+        }
+        // A cached entry can outlive the token itself
+        if (verified.expiresAtMillis() <= System.currentTimeMillis()) {
+            if (verifiedTokens != null) {
+                verifiedTokens.invalidate(authToken);
+            }
+            logger.error("JWT token is expired");
+            return null;
+        }
+        return verified.user();
     }
 
-    public boolean validateJwtToken(String authToken) {
+    private VerifiedToken verify(String authToken) {
         try {
-            Jwts.parserBuilder().setSigningKey(key()).build().parseClaimsJws(authToken);
-            return true;
+            Claims claims = parser.parseClaimsJws(authToken).getBody();
+            Long userId = claims.get(USER_ID_CLAIM, Long.class);
+            List<?> roles = claims.get(ROLES_CLAIM, List.class);
+            if (userId == null || roles == null) {
+                logger.error("JWT token has no user claims");
+                return null;
+            }
+
+            List<GrantedAuthority> authorities = roles.stream()
+                    .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(role.toString()))
+                    .toList();
+            UserDetailsImpl user = new UserDetailsImpl(userId, claims.getSubject(),
+                    claims.get(EMAIL_CLAIM, String.class), null, authorities);
+            return new VerifiedToken(user, claims.getExpiration().getTime());
         } catch (SecurityException e) {
             logger.error("Invalid JWT signature: {}", e.getMessage());
         } catch (MalformedJwtException e) {
@@ -61,8 +128,12 @@ public class JwtUtils {
             logger.error("JWT token is unsupported: {}", e.getMessage());
         } catch (IllegalArgumentException e) {
             logger.error("JWT claims string is empty: {}", e.getMessage());
+        } catch (JwtException e) {
+            logger.error("Invalid JWT token: {}", e.getMessage());
         }
 
-        return false;
+        return null;
     }
+
+    private record VerifiedToken(UserDetailsImpl user, long expiresAtMillis) {}
 }
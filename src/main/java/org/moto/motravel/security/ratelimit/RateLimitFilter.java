@@ -0,0 +1,141 @@
+package org.moto.motravel.security.ratelimit;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.moto.motravel.security.services.UserDetailsImpl;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-client token-bucket rate limiting, run right after {@link org.moto.motravel.security.jwt.AuthTokenFilter}.
+ * Authenticated requests are keyed by user id and anonymous ones by client IP. Each
+ * route group has its own limits: geo lookups and sign-in are the expensive ones,
+ * everything else under /api shares a looser default. A rejected request costs one
+ * bucket update and a fixed 429 body; it never reaches a controller or the database.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final byte[] REJECTED_BODY =
+            "{\"message\":\"Error: Too many requests, please retry shortly\"}".getBytes(StandardCharsets.UTF_8);
+
+    private static final RequestMatcher GEO_ROUTES = new OrRequestMatcher(
+            new AntPathRequestMatcher("/api/hidden-gems/nearby", "GET"),
+            new AntPathRequestMatcher("/api/hidden-gems/nearest", "GET"),
+            new AntPathRequestMatcher("/api/hidden-gems/clusters", "GET"),
+            new AntPathRequestMatcher("/api/vehicles/nearby", "GET"),
+            new AntPathRequestMatcher("/api/vehicles/search", "GET"));
+
+    private static final RequestMatcher AUTH_ROUTES = new OrRequestMatcher(
+            new AntPathRequestMatcher("/api/auth/signin", "POST"),
+            new AntPathRequestMatcher("/api/auth/signup", "POST"));
+
+    private static final RequestMatcher API_ROUTES = new AntPathRequestMatcher("/api/**");
+
+    @Value("${app.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.rate-limit.geo.capacity:20}")
+    private int geoCapacity;
+
+    @Value("${app.rate-limit.geo.refill-per-second:5}")
+    private double geoRefillPerSecond;
+
+    @Value("${app.rate-limit.auth.capacity:10}")
+    private int authCapacity;
+
+    @Value("${app.rate-limit.auth.refill-per-second:1}")
+    private double authRefillPerSecond;
+
+    @Value("${app.rate-limit.api.capacity:100}")
+    private int apiCapacity;
+
+    @Value("${app.rate-limit.api.refill-per-second:50}")
+    private double apiRefillPerSecond;
+
+    private List<RouteGroup> groups;
+
+    @PostConstruct
+    void init() {
+        groups = List.of(
+                new RouteGroup(GEO_ROUTES, new TokenBucketLimiter(geoCapacity, geoRefillPerSecond)),
+                new RouteGroup(AUTH_ROUTES, new TokenBucketLimiter(authCapacity, authRefillPerSecond)),
+                new RouteGroup(API_ROUTES, new TokenBucketLimiter(apiCapacity, apiRefillPerSecond)));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        TokenBucketLimiter limiter = limiterFor(request);
+        if (limiter != null) {
+            long result = limiter.tryAcquire(clientKey(request), System.nanoTime());
+            if (result < 0) {
+                long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(-result + 999_999_999L));
+                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                response.getOutputStream().write(REJECTED_BODY);
+                return;
+            }
+            response.setHeader("X-RateLimit-Limit", Integer.toString(limiter.getCapacity()));
+            response.setHeader("X-RateLimit-Remaining", Long.toString(result));
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Drop buckets of clients that have been idle long enough to refill completely
+     */
+    @Scheduled(fixedDelayString = "${app.rate-limit.sweep-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        if (groups == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        for (RouteGroup group : groups) {
+            group.limiter().evictIdle(now);
+        }
+    }
+
+    private TokenBucketLimiter limiterFor(HttpServletRequest request) {
+        for (RouteGroup group : groups) {
+            if (group.routes().matches(request)) {
+                return group.limiter();
+            }
+        }
+        return null;
+    }
+
+    private static String clientKey(HttpServletRequest request) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.getPrincipal() instanceof UserDetailsImpl user) {
+            return "user:" + user.getId();
+        }
+        // Behind a proxy, enable server.forward-headers-strategy so this is the client address
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private record RouteGroup(RequestMatcher routes, TokenBucketLimiter limiter) {}
+}
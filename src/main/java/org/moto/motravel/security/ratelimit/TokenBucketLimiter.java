@@ -0,0 +1,65 @@
+package org.moto.motravel.security.ratelimit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets for one route group, one bucket per client key. Each bucket is a
+ * single AtomicLong holding the time at which it will be full again (the GCRA form
+ * of a token bucket), so taking a token is one compare-and-set with no locks and
+ * no refill thread. A bucket that has refilled completely holds no information,
+ * which is what lets idle buckets be dropped.
+ */
+public class TokenBucketLimiter {
+
+    private final int capacity;
+    private final long nanosPerToken;
+    private final long burstNanos;
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    public TokenBucketLimiter(int capacity, double refillPerSecond) {
+        if (capacity <= 0 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("capacity and refillPerSecond must be positive");
+        }
+        this.capacity = capacity;
+        this.nanosPerToken = Math.max(1L, (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond));
+        this.burstNanos = nanosPerToken * capacity;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Take a token from the key's bucket. Returns the tokens left (zero or more) when
+     * allowed, or minus the nanoseconds until the next token when the bucket is empty.
+     */
+    public long tryAcquire(String key, long nowNanos) {
+        AtomicLong fullAt = buckets.computeIfAbsent(key, k -> new AtomicLong(nowNanos));
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, nowNanos) + nanosPerToken;
+            long debt = next - nowNanos;
+            if (debt > burstNanos) {
+                return -(debt - burstNanos);
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return (burstNanos - debt) / nanosPerToken;
+            }
+        }
+    }
+
+    /**
+     * Drop buckets that have refilled completely; returns how many were dropped
+     */
+    public int evictIdle(long nowNanos) {
+        int before = buckets.size();
+        buckets.values().removeIf(fullAt -> fullAt.get() - nowNanos <= 0);
+        return before - buckets.size();
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+}
@@ -0,0 +1,107 @@
+package org.moto.motravel.security.services;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Small fixed pool for BCrypt work (sign-in verification and sign-up hashing), kept
+ * apart from the request threads so a burst of logins cannot starve catalog reads.
+ * The queue is bounded; when it is full submissions fail at once with
+ * {@link RejectedExecutionException} instead of waiting.
+ */
+@Service
+public class PasswordHashingService {
+
+    private final ThreadPoolExecutor executor;
+    private final int queueCapacity;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder totalQueueWaitNanos = new LongAdder();
+    private final LongAdder totalRunNanos = new LongAdder();
+    private final AtomicLong maxRunNanos = new AtomicLong();
+
+    public PasswordHashingService(
+            @Value("${app.auth.hashing.threads:0}") int threads,
+            @Value("${app.auth.hashing.queue-capacity:50}") int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.queueCapacity = queueCapacity;
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory(), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Run the task on the hashing pool
+     *
+     * @throws RejectedExecutionException if every worker is busy and the queue is full
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        long queuedAt = System.nanoTime();
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                long startedAt = System.nanoTime();
+                totalQueueWaitNanos.add(startedAt - queuedAt);
+                try {
+                    future.complete(task.get());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    long runNanos = System.nanoTime() - startedAt;
+                    totalRunNanos.add(runNanos);
+                    maxRunNanos.accumulateAndGet(runNanos, Math::max);
+                    completed.increment();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw e;
+        }
+        submitted.increment();
+        return future;
+    }
+
+    public Stats stats() {
+        long done = completed.sum();
+        return new Stats(executor.getMaximumPoolSize(), executor.getActiveCount(),
+                executor.getQueue().size(), queueCapacity,
+                submitted.sum(), rejected.sum(), done,
+                done == 0 ? 0.0 : totalQueueWaitNanos.sum() / 1_000_000.0 / done,
+                done == 0 ? 0.0 : totalRunNanos.sum() / 1_000_000.0 / done,
+                maxRunNanos.get() / 1_000_000.0);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    private static ThreadFactory threadFactory() {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "password-hashing-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Point-in-time pool counters; wait and run times are averaged over completed tasks
+     */
+    public record Stats(int threads, int activeThreads, int queueDepth, int queueCapacity,
+                        long submitted, long rejected, long completed,
+                        double averageQueueWaitMillis, double averageHashMillis, double maxHashMillis) {}
+}
@@ -16,25 +16,31 @@ public class AdventureTypeService {
     @Autowired
     private AdventureTypeRepository adventureTypeRepository;
 
+    @Autowired
+    private HiddenGemService hiddenGemService;
+
+    @Autowired
+    private ReferenceDataService referenceDataService;
+
     /**
      * Get all adventure types ordered by name
      */
     public List<AdventureType> getAllAdventureTypes() {
-        return adventureTypeRepository.findAllOrderByName();
+        return referenceDataService.getAdventureTypes();
     }
 
     /**
      * Get adventure type by ID
      */
     public Optional<AdventureType> getAdventureTypeById(Long id) {
-        return adventureTypeRepository.findById(id);
+        return referenceDataService.getAdventureType(id);
     }
 
     /**
      * Get adventure type by name
      */
     public Optional<AdventureType> getAdventureTypeByName(String name) {
-        return adventureTypeRepository.findByName(name);
+        return referenceDataService.getAdventureTypeByName(name);
     }
 
     /**
@@ -44,7 +50,9 @@ public class AdventureTypeService {
         if (adventureTypeRepository.existsByName(adventureType.getName())) {
             throw new IllegalArgumentException("Adventure type with name '" + adventureType.getName() + "' already exists");
         }
-        return adventureTypeRepository.save(adventureType);
+        AdventureType savedAdventureType = adventureTypeRepository.save(adventureType);
+        referenceDataService.rebuildAfterCommit();
+        return savedAdventureType;
     }
 
     /**
@@ -61,7 +69,11 @@ public class AdventureTypeService {
         }
 
         adventureType.setName(adventureTypeDetails.getName());
-        return adventureTypeRepository.save(adventureType);
+        AdventureType savedAdventureType = adventureTypeRepository.save(adventureType);
+        // Cached gem details embed the adventure type names
+        hiddenGemService.evictAllHiddenGemDetails();
+        referenceDataService.rebuildAfterCommit();
+        return savedAdventureType;
     }
 
     /**
@@ -78,13 +90,14 @@ public class AdventureTypeService {
         }
 
         adventureTypeRepository.delete(adventureType);
+        referenceDataService.rebuildAfterCommit();
     }
 
     /**
      * Search adventure types by name
      */
     public List<AdventureType> searchAdventureTypesByName(String searchTerm) {
-        return adventureTypeRepository.findByNameContainingIgnoreCase(searchTerm);
+        return referenceDataService.searchAdventureTypes(searchTerm);
     }
 
     /**
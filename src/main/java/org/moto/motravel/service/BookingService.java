@@ -4,14 +4,22 @@ import org.moto.motravel.model.Booking;
 import org.moto.motravel.model.Vehicle;
 import org.moto.motravel.repository.BookingRepository;
 import org.moto.motravel.repository.VehicleRepository;
+import org.moto.motravel.service.index.IntervalTree;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Service
 public class BookingService {
@@ -22,6 +30,38 @@ public class BookingService {
     @Autowired
     private VehicleRepository vehicleRepository;
 
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private static final String CANCELLED = "CANCELLED";
+
+    // Power of two so a stripe can be picked with a mask
+    private static final int BOOKING_LOCK_STRIPES = 64;
+
+    // Serializes booking creation per vehicle inside this JVM; distinct vehicles rarely share a stripe
+    private final ReentrantLock[] bookingLocks = new ReentrantLock[BOOKING_LOCK_STRIPES];
+
+    {
+        for (int i = 0; i < BOOKING_LOCK_STRIPES; i++) {
+            bookingLocks[i] = new ReentrantLock();
+        }
+    }
+
+    // Committed, non-cancelled booking intervals per vehicle
+    private final Map<Long, IntervalTree> bookedIntervals = new ConcurrentHashMap<>();
+
+    /**
+     * Load the booked intervals of every vehicle once seed data is in place
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadBookedIntervals() {
+        bookedIntervals.clear();
+        for (Booking booking : bookingRepository.findByStatusNot(CANCELLED)) {
+            applyToBookedIntervals(booking.getId(), booking.getVehicleId(),
+                    booking.getStartTime(), booking.getEndTime(), booking.getStatus());
+        }
+    }
+
     /**
      * Get all bookings
      */
@@ -51,11 +91,30 @@ public class BookingService {
     }
 
     /**
-     * Create a new booking
+     * Create a new booking.
+     * Requests for the same vehicle are serialized by a striped lock held until the
+     * transaction has committed, while the vehicle row lock taken inside the
+     * transaction guards against writers in other application instances.
      */
-    @Transactional
     public Booking createBooking(Booking booking) {
-        // Check if vehicle is available for the requested time period
+        ReentrantLock lock = bookingLockFor(booking.getVehicleId());
+        lock.lock();
+        try {
+            return new TransactionTemplate(transactionManager).execute(status -> insertBooking(booking));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Booking insertBooking(Booking booking) {
+        // Lock the vehicle row first so the overlap check and the insert are atomic
+        Optional<Vehicle> vehicleOpt = vehicleRepository.findByIdForUpdate(booking.getVehicleId());
+        if (vehicleOpt.isEmpty()) {
+            throw new IllegalArgumentException("Vehicle not found");
+        }
+
+        // The database is the source of truth here: the in-memory intervals only reflect
+        // commits made by this instance, so they can miss bookings or cancellations made elsewhere
         boolean isVehicleBooked = bookingRepository.isVehicleBookedInTimeRange(
                 booking.getVehicleId(), booking.getStartTime(), booking.getEndTime());
 
@@ -63,12 +122,6 @@ public class BookingService {
             throw new IllegalStateException("Vehicle is not available for the requested time period");
         }
 
-        // Get vehicle to calculate total price
-        Optional<Vehicle> vehicleOpt = vehicleRepository.findById(booking.getVehicleId());
-        if (vehicleOpt.isEmpty()) {
-            throw new IllegalArgumentException("Vehicle not found");
-        }
-
         Vehicle vehicle = vehicleOpt.get();
         
         // Check if vehicle is available
@@ -88,7 +141,9 @@ public class BookingService {
         // Set initial status
         booking.setStatus("PENDING");
         
-        return bookingRepository.save(booking);
+        Booking savedBooking = bookingRepository.save(booking);
+        syncBookedIntervalsAfterCommit(savedBooking);
+        return savedBooking;
     }
 
     /**
@@ -104,7 +159,9 @@ public class BookingService {
         Booking booking = bookingOpt.get();
         booking.setStatus(status);
         
-        return bookingRepository.save(booking);
+        Booking savedBooking = bookingRepository.save(booking);
+        syncBookedIntervalsAfterCommit(savedBooking);
+        return savedBooking;
     }
 
     /**
@@ -112,13 +169,62 @@ public class BookingService {
      */
     @Transactional
     public Booking cancelBooking(Long bookingId) {
-        return updateBookingStatus(bookingId, "CANCELLED");
+        return updateBookingStatus(bookingId, CANCELLED);
     }
 
     /**
-     * Check if a vehicle is available for booking in a specific time range
+     * Check if a vehicle is available for booking in a specific time range.
+     * A free slot is answered from memory and may miss bookings committed by other
+     * application instances; createBooking re-checks the database before inserting.
+     * A conflict found in memory is confirmed against the database, since it may be
+     * a booking that another instance has since cancelled.
      */
     public boolean isVehicleAvailableForBooking(Long vehicleId, LocalDateTime startTime, LocalDateTime endTime) {
-        return !bookingRepository.isVehicleBookedInTimeRange(vehicleId, startTime, endTime);
+        IntervalTree intervals = bookedIntervals.get(vehicleId);
+        if (intervals == null) {
+            return true;
+        }
+        boolean overlaps;
+        synchronized (intervals) {
+            overlaps = intervals.overlaps(startTime, endTime);
+        }
+        return !overlaps || !bookingRepository.isVehicleBookedInTimeRange(vehicleId, startTime, endTime);
+    }
+
+    private ReentrantLock bookingLockFor(Long vehicleId) {
+        int hash = Long.hashCode(vehicleId);
+        return bookingLocks[(hash ^ (hash >>> 16)) & (BOOKING_LOCK_STRIPES - 1)];
+    }
+
+    /**
+     * Apply a booking change to the in-memory intervals once its transaction commits,
+     * so rolled-back writes never become visible to availability checks
+     */
+    private void syncBookedIntervalsAfterCommit(Booking booking) {
+        Long bookingId = booking.getId();
+        Long vehicleId = booking.getVehicleId();
+        LocalDateTime startTime = booking.getStartTime();
+        LocalDateTime endTime = booking.getEndTime();
+        String status = booking.getStatus();
+
+        TransactionHooks.afterCommit(() ->
+                applyToBookedIntervals(bookingId, vehicleId, startTime, endTime, status));
+    }
+
+    private void applyToBookedIntervals(Long bookingId, Long vehicleId, LocalDateTime startTime,
+                                        LocalDateTime endTime, String status) {
+        if (CANCELLED.equals(status)) {
+            IntervalTree intervals = bookedIntervals.get(vehicleId);
+            if (intervals != null) {
+                synchronized (intervals) {
+                    intervals.remove(bookingId);
+                }
+            }
+            return;
+        }
+        IntervalTree intervals = bookedIntervals.computeIfAbsent(vehicleId, id -> new IntervalTree());
+        synchronized (intervals) {
+            intervals.put(bookingId, startTime, endTime);
+        }
     }
 }
@@ -1,19 +1,38 @@
 package org.moto.motravel.service;
 
-import org.moto.motravel.model.HiddenGem;
 import org.moto.motravel.model.HiddenGemBookmark;
-import org.moto.motravel.model.HiddenGemBookmarkId;
+import org.moto.motravel.payload.response.HiddenGemSummary;
 import org.moto.motravel.repository.HiddenGemBookmarkRepository;
 import org.moto.motravel.repository.HiddenGemRepository;
+import org.moto.motravel.service.cache.ExpiringLruCache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -25,41 +44,116 @@ public class HiddenGemBookmarkService {
     @Autowired
     private HiddenGemRepository hiddenGemRepository;
 
+    @Autowired
+    private HiddenGemStatsService statsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Bookmark count per gem; LongAdder keeps concurrent bookmarks of one popular gem
+    // from contending on a single counter
+    private final Map<Long, LongAdder> bookmarkCounts = new ConcurrentHashMap<>();
+
+    // Gems whose count changed since the last flush to hidden_gems.bookmark_count
+    private final Set<Long> dirtyCounts = ConcurrentHashMap.newKeySet();
+
+    private static final int MAX_CACHED_BOOKMARK_SETS = 10_000;
+    private static final Duration BOOKMARK_SET_TTL = Duration.ofMinutes(30);
+
+    // Sorted bookmarked gem ids per user, sized by the user's bookmarks rather than by the
+    // largest gem id; a cached array is never modified, a bookmark change drops it and the
+    // next lookup reloads it with one query
+    private final ExpiringLruCache<Long, long[]> bookmarkedGemsByUser =
+            new ExpiringLruCache<>(MAX_CACHED_BOOKMARK_SETS, BOOKMARK_SET_TTL);
+
     /**
-     * Add a bookmark for a user
+     * Seed the counters from the bookmarks table and repair the persisted counts,
+     * which may have missed the last flush before a shutdown
      */
-    public HiddenGemBookmark addBookmark(Long userId, Long hiddenGemId) {
-        // Check if hidden gem exists
-        HiddenGem hiddenGem = hiddenGemRepository.findById(hiddenGemId)
-                .orElseThrow(() -> new IllegalArgumentException("Hidden gem not found with id: " + hiddenGemId));
-
-        // Check if bookmark already exists
-        if (bookmarkRepository.existsByUserIdAndHiddenGemId(userId, hiddenGemId)) {
-            throw new IllegalStateException("User has already bookmarked this hidden gem");
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadBookmarkCounts() {
+        hiddenGemRepository.recomputeBookmarkCounts();
+        bookmarkCounts.clear();
+        for (Object[] row : bookmarkRepository.countGroupedByHiddenGemId()) {
+            counter((Long) row[0]).add((Long) row[1]);
         }
-
-        HiddenGemBookmark bookmark = new HiddenGemBookmark(userId, hiddenGemId);
-        return bookmarkRepository.save(bookmark);
     }
 
     /**
-     * Remove a bookmark for a user
+     * Write the counts that changed since the last flush to hidden_gems.bookmark_count,
+     * as one JDBC batch
      */
-    public void removeBookmark(Long userId, Long hiddenGemId) {
-        HiddenGemBookmarkId bookmarkId = new HiddenGemBookmarkId(userId, hiddenGemId);
-        
-        if (!bookmarkRepository.existsById(bookmarkId)) {
-            throw new IllegalArgumentException("Bookmark not found for user " + userId + " and hidden gem " + hiddenGemId);
+    @Scheduled(fixedDelayString = "${app.hidden-gems.bookmark-counts.flush-interval-ms:30000}")
+    public void flushBookmarkCounts() {
+        List<Long> hiddenGemIds = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        Iterator<Long> dirty = dirtyCounts.iterator();
+        while (dirty.hasNext()) {
+            Long hiddenGemId = dirty.next();
+            // Clear the mark before reading so a concurrent change marks the gem again
+            dirty.remove();
+            hiddenGemIds.add(hiddenGemId);
+            updates.add(new Object[] {getHiddenGemBookmarkCount(hiddenGemId), hiddenGemId});
+        }
+        if (updates.isEmpty()) {
+            return;
         }
+        try {
+            jdbcTemplate.batchUpdate("UPDATE hidden_gems SET bookmark_count = ? WHERE id = ?", updates);
+        } catch (RuntimeException e) {
+            // Keep the counts for the next flush
+            dirtyCounts.addAll(hiddenGemIds);
+            throw e;
+        }
+    }
 
-        bookmarkRepository.deleteById(bookmarkId);
+    /**
+     * Add a bookmark for a user in a single statement. Adding an existing bookmark is a
+     * no-op, so repeated requests are safe; returns whether a bookmark was created.
+     */
+    public boolean addBookmark(Long userId, Long hiddenGemId) {
+        int inserted = runBookmarkWrite(hiddenGemId, () -> bookmarkRepository.insertIfAbsent(userId, hiddenGemId));
+        applyBookmarkChange(userId, hiddenGemId, inserted);
+        return inserted > 0;
+    }
+
+    /**
+     * Remove a bookmark for a user in a single statement. Removing a missing bookmark is
+     * a no-op; returns whether a bookmark was deleted.
+     */
+    public boolean removeBookmark(Long userId, Long hiddenGemId) {
+        int deleted = bookmarkRepository.deleteByUserIdAndHiddenGemId(userId, hiddenGemId);
+        applyBookmarkChange(userId, hiddenGemId, -deleted);
+        return deleted > 0;
     }
 
     /**
      * Check if user has bookmarked a specific hidden gem
      */
     public boolean isBookmarked(Long userId, Long hiddenGemId) {
-        return bookmarkRepository.existsByUserIdAndHiddenGemId(userId, hiddenGemId);
+        return contains(bookmarkedGemIds(userId), hiddenGemId);
+    }
+
+    /**
+     * Check many gems at once, keeping the order of the given ids
+     */
+    public Map<Long, Boolean> areBookmarked(Long userId, Collection<Long> hiddenGemIds) {
+        long[] bookmarked = bookmarkedGemIds(userId);
+        Map<Long, Boolean> result = new LinkedHashMap<>();
+        for (Long hiddenGemId : hiddenGemIds) {
+            result.put(hiddenGemId, contains(bookmarked, hiddenGemId));
+        }
+        return result;
+    }
+
+    /**
+     * Set the isBookmarked flag on a page of gem summaries
+     */
+    public void markBookmarked(Long userId, Collection<HiddenGemSummary> summaries) {
+        long[] bookmarked = bookmarkedGemIds(userId);
+        for (HiddenGemSummary summary : summaries) {
+            summary.setIsBookmarked(contains(bookmarked, summary.getId()));
+        }
     }
 
     /**
@@ -70,12 +164,30 @@ public class HiddenGemBookmarkService {
     }
 
     /**
-     * Get user bookmarks with pagination
+     * Get user bookmarks with pagination. The page of gem ids is found first and only
+     * those bookmarks are then loaded with their gems, so the cost does not grow with
+     * the total number of bookmarks the user has.
      */
+    @Transactional(readOnly = true)
     public Page<HiddenGemBookmark> getUserBookmarks(Long userId, int page, int size, String sortBy, String sortDirection) {
-        Sort sort = Sort.by(Sort.Direction.fromString(sortDirection), validateSortField(sortBy));
+        Sort.Direction direction = Sort.Direction.fromString(sortDirection);
+        // The gem id breaks ties so pages never overlap or skip rows
+        Sort sort = Sort.by(direction, validateSortField(sortBy)).and(Sort.by(direction, "hiddenGemId"));
         Pageable pageable = PageRequest.of(page, size, sort);
-        return bookmarkRepository.findByUserIdWithGemDetails(userId, pageable);
+
+        Page<Long> idPage = bookmarkRepository.findHiddenGemIdsByUserId(userId, pageable);
+        if (idPage.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, idPage.getTotalElements());
+        }
+
+        Map<Long, HiddenGemBookmark> bookmarksByGemId = bookmarkRepository
+                .findByUserIdAndHiddenGemIdInWithGemDetails(userId, idPage.getContent()).stream()
+                .collect(Collectors.toMap(HiddenGemBookmark::getHiddenGemId, Function.identity()));
+        List<HiddenGemBookmark> content = idPage.getContent().stream()
+                .map(bookmarksByGemId::get)
+                .filter(bookmark -> bookmark != null)
+                .collect(Collectors.toList());
+        return new PageImpl<>(content, pageable, idPage.getTotalElements());
     }
 
     /**
@@ -89,22 +201,75 @@ public class HiddenGemBookmarkService {
      * Get count of bookmarks for a hidden gem (popularity indicator)
      */
     public long getHiddenGemBookmarkCount(Long hiddenGemId) {
-        return bookmarkRepository.countByHiddenGemId(hiddenGemId);
+        LongAdder count = bookmarkCounts.get(hiddenGemId);
+        return count != null ? Math.max(count.sum(), 0) : 0;
     }
 
     /**
-     * Toggle bookmark status (add if not exists, remove if exists)
+     * Toggle bookmark status (add if not exists, remove if exists) in a single statement
      */
     public boolean toggleBookmark(Long userId, Long hiddenGemId) {
-        if (isBookmarked(userId, hiddenGemId)) {
-            removeBookmark(userId, hiddenGemId);
-            return false; // Bookmark removed
-        } else {
-            addBookmark(userId, hiddenGemId);
-            return true; // Bookmark added
+        int change = runBookmarkWrite(hiddenGemId, () -> bookmarkRepository.toggle(userId, hiddenGemId));
+        applyBookmarkChange(userId, hiddenGemId, change);
+        // A change of 0 means a concurrent request added it first, so it is bookmarked
+        return change >= 0;
+    }
+
+    /**
+     * Run a bookmark insert, reporting a foreign key violation as an unknown gem
+     */
+    private int runBookmarkWrite(Long hiddenGemId, IntSupplier write) {
+        try {
+            return write.getAsInt();
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("Hidden gem not found with id: " + hiddenGemId);
+        }
+    }
+
+    private void applyBookmarkChange(Long userId, Long hiddenGemId, int change) {
+        if (change > 0) {
+            adjustCountAfterCommit(userId, hiddenGemId, change);
+            statsService.bookmarkAdded(hiddenGemId);
+        } else if (change < 0) {
+            adjustCountAfterCommit(userId, hiddenGemId, change);
+            statsService.bookmarkRemoved(hiddenGemId);
         }
     }
 
+    private long[] bookmarkedGemIds(Long userId) {
+        return bookmarkedGemsByUser.get(userId, id -> {
+            long[] bookmarked = bookmarkRepository.findAllHiddenGemIdsByUserId(id).stream()
+                    .mapToLong(Long::longValue)
+                    .toArray();
+            Arrays.sort(bookmarked);
+            return bookmarked;
+        });
+    }
+
+    private static boolean contains(long[] sortedGemIds, Long hiddenGemId) {
+        return hiddenGemId != null && Arrays.binarySearch(sortedGemIds, hiddenGemId) >= 0;
+    }
+
+    private LongAdder counter(Long hiddenGemId) {
+        return bookmarkCounts.computeIfAbsent(hiddenGemId, id -> new LongAdder());
+    }
+
+    /**
+     * Apply a count change and drop the user's bookmarked ids once the bookmark write
+     * has committed. They are also dropped right away so this transaction's own
+     * lookups reload it.
+     */
+    private void adjustCountAfterCommit(Long userId, Long hiddenGemId, long delta) {
+        bookmarkedGemsByUser.invalidate(userId);
+        TransactionHooks.afterCommit(() -> adjustCount(userId, hiddenGemId, delta));
+    }
+
+    private void adjustCount(Long userId, Long hiddenGemId, long delta) {
+        counter(hiddenGemId).add(delta);
+        dirtyCounts.add(hiddenGemId);
+        bookmarkedGemsByUser.invalidate(userId);
+    }
+
     /**
      * Validate sort field for bookmarks
      */
@@ -0,0 +1,130 @@
+package org.moto.motravel.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.moto.motravel.payload.response.HiddenGemExportRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes the hidden gem catalog as NDJSON, one gem per line in id order. Rows are read
+ * through a forward-only cursor that fetches fetchSize rows at a time, and each one is
+ * written out as soon as it is read, so memory does not grow with the catalog.
+ */
+@Service
+public class HiddenGemExportService {
+
+    // Collections are aggregated per row so a gem is complete when its row is read
+    private static final String EXPORT_SELECT =
+            "SELECT h.id, h.name, h.description, h.state_id, s.name AS state_name, h.latitude, h.longitude, " +
+            "h.nearest_city, h.best_time_to_visit, h.difficulty_level, h.cost_range, h.created_at, h.updated_at, " +
+            "ARRAY(SELECT t.adventure_type_id FROM hidden_gem_adventure_types t " +
+            "      WHERE t.hidden_gem_id = h.id ORDER BY t.adventure_type_id) AS adventure_type_ids, " +
+            "ARRAY(SELECT i.image_url FROM hidden_gem_images i " +
+            "      WHERE i.hidden_gem_id = h.id ORDER BY i.image_url) AS image_urls " +
+            "FROM hidden_gems h JOIN states s ON s.id = h.state_id ";
+
+    private static final byte[] NEWLINE = {'\n'};
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.hidden-gems.export.fetch-size:1000}")
+    private int fetchSize;
+
+    /**
+     * Write every gem, or only those updated at or after updatedSince, to the stream
+     */
+    public void exportNdjson(OutputStream target, LocalDateTime updatedSince) throws IOException {
+        OutputStream out = new BufferedOutputStream(target, 1 << 16);
+        ObjectWriter writer = objectMapper.writerFor(HiddenGemExportRecord.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        String sql = EXPORT_SELECT + (updatedSince != null ? "WHERE h.updated_at >= ? " : "") + "ORDER BY h.id";
+        Object[] args = updatedSince != null ? new Object[] {Timestamp.valueOf(updatedSince)} : new Object[0];
+
+        // PostgreSQL only streams with a cursor inside a transaction
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        try {
+            template.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                for (int i = 0; i < args.length; i++) {
+                    statement.setObject(i + 1, args[i]);
+                }
+                return statement;
+            }, (RowCallbackHandler) rs -> {
+                try {
+                    writer.writeValue(out, toRecord(rs));
+                    out.write(NEWLINE);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        out.flush();
+    }
+
+    private static HiddenGemExportRecord toRecord(ResultSet rs) throws SQLException {
+        return new HiddenGemExportRecord(
+                rs.getLong("id"),
+                rs.getString("name"),
+                rs.getString("description"),
+                rs.getLong("state_id"),
+                rs.getString("state_name"),
+                rs.getObject("latitude", Double.class),
+                rs.getObject("longitude", Double.class),
+                rs.getString("nearest_city"),
+                rs.getString("best_time_to_visit"),
+                rs.getString("difficulty_level"),
+                rs.getString("cost_range"),
+                toList(rs.getArray("adventure_type_ids"), Long.class),
+                toList(rs.getArray("image_urls"), String.class),
+                toLocalDateTime(rs.getTimestamp("created_at")),
+                toLocalDateTime(rs.getTimestamp("updated_at")));
+    }
+
+    private static <T> List<T> toList(Array array, Class<T> elementType) throws SQLException {
+        if (array == null) {
+            return List.of();
+        }
+        try {
+            return Arrays.stream((Object[]) array.getArray()).map(elementType::cast).toList();
+        } finally {
+            array.free();
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
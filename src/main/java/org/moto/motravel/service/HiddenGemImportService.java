@@ -0,0 +1,378 @@
+package org.moto.motravel.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.moto.motravel.model.AdventureType;
+import org.moto.motravel.model.HiddenGem;
+import org.moto.motravel.model.State;
+import org.moto.motravel.payload.response.HiddenGemImportResponse;
+import org.moto.motravel.service.bulk.CsvReader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Streams hidden gems from a CSV or NDJSON body into the database. Rows are parsed one
+ * at a time, checked against the in-memory state and adventure type snapshot and the
+ * entity constraints, and saved in batches of batchSize rows, each in its own
+ * transaction. Memory stays bounded by one batch plus the reported errors, whatever
+ * the size of the input.
+ */
+@Service
+public class HiddenGemImportService {
+
+    public enum Format { CSV, NDJSON }
+
+    // Columns (CSV header) or keys (NDJSON); list columns take '|' separated values in CSV
+    private static final Set<String> FIELDS = Set.of("name", "description", "state", "latitude", "longitude",
+            "nearestcity", "besttimetovisit", "difficultylevel", "costrange", "adventuretypes", "imageurls");
+
+    private static final String LIST_SEPARATOR = "\\|";
+
+    private static final int MAX_FIELD_LENGTH = 65_536;
+
+    @Autowired
+    private HiddenGemService hiddenGemService;
+
+    @Autowired
+    private ReferenceDataService referenceDataService;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.hidden-gems.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.hidden-gems.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    /**
+     * Import every row of the body. Invalid rows are skipped and reported; a batch the
+     * database rejects is retried row by row so only the offending rows are lost.
+     *
+     * @throws IllegalArgumentException if the CSV header names an unknown column
+     */
+    public HiddenGemImportResponse importHiddenGems(InputStream body, Format format) throws IOException {
+        long start = System.nanoTime();
+        ImportRun run = new ImportRun();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8), 1 << 16);
+        RowSource rows = format == Format.CSV ? csvRows(reader) : ndjsonRows(reader);
+
+        while (true) {
+            Row row;
+            try {
+                row = rows.next();
+            } catch (IllegalArgumentException e) {
+                // The input cannot be resynchronized after a malformed record
+                run.error(run.totalRows + 1, e.getMessage() + "; import stopped");
+                break;
+            }
+            if (row == null) {
+                break;
+            }
+            if (row.isBlank()) {
+                continue;
+            }
+            run.totalRows++;
+            try {
+                run.add(run.totalRows, toHiddenGem(row));
+            } catch (IllegalArgumentException e) {
+                run.error(run.totalRows, e.getMessage());
+            }
+            if (run.batch.size() >= batchSize) {
+                saveBatch(run);
+            }
+        }
+        saveBatch(run);
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        double rowsPerSecond = elapsedMillis == 0 ? run.imported : run.imported * 1000.0 / elapsedMillis;
+        return new HiddenGemImportResponse(run.totalRows, run.imported, run.failed, elapsedMillis, rowsPerSecond,
+                run.errors, run.errorsTruncated);
+    }
+
+    private void saveBatch(ImportRun run) {
+        if (run.batch.isEmpty()) {
+            return;
+        }
+        try {
+            hiddenGemService.createHiddenGems(run.batch);
+            run.imported += run.batch.size();
+        } catch (RuntimeException batchFailure) {
+            for (int i = 0; i < run.batch.size(); i++) {
+                HiddenGem hiddenGem = run.batch.get(i);
+                // The rolled back batch may have assigned an id
+                hiddenGem.setId(null);
+                try {
+                    hiddenGemService.createHiddenGems(List.of(hiddenGem));
+                    run.imported++;
+                } catch (RuntimeException e) {
+                    run.error(run.batchRows.get(i), NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+                }
+            }
+        }
+        run.batch.clear();
+        run.batchRows.clear();
+        // Drop the saved gems from the request-scoped persistence context (open-in-view)
+        entityManager.clear();
+    }
+
+    private HiddenGem toHiddenGem(Row row) {
+        HiddenGem hiddenGem = new HiddenGem();
+        hiddenGem.setName(row.text("name"));
+        hiddenGem.setDescription(row.text("description"));
+        hiddenGem.setState(resolveState(row.text("state")));
+        hiddenGem.setLatitude(parseDouble(row.text("latitude"), "latitude"));
+        hiddenGem.setLongitude(parseDouble(row.text("longitude"), "longitude"));
+        hiddenGem.setNearestCity(row.text("nearestcity"));
+        hiddenGem.setBestTimeToVisit(row.text("besttimetovisit"));
+        hiddenGem.setDifficultyLevel(row.text("difficultylevel"));
+        hiddenGem.setCostRange(row.text("costrange"));
+
+        Set<AdventureType> adventureTypes = new HashSet<>();
+        for (String value : row.list("adventuretypes")) {
+            adventureTypes.add(resolveAdventureType(value));
+        }
+        hiddenGem.setAdventureTypes(adventureTypes);
+        hiddenGem.setImageUrls(new HashSet<>(row.list("imageurls")));
+
+        Set<ConstraintViolation<HiddenGem>> violations = validator.validate(hiddenGem);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+        if (hiddenGem.getLatitude() == null || hiddenGem.getLongitude() == null) {
+            throw new IllegalArgumentException("Latitude and longitude are required");
+        }
+        return hiddenGem;
+    }
+
+    /**
+     * States and adventure types may be given by id or by name
+     */
+    private State resolveState(String value) {
+        if (value == null) {
+            return null; // reported by the @NotNull constraint
+        }
+        Optional<State> state = isId(value)
+                ? referenceDataService.getState(Long.parseLong(value))
+                : referenceDataService.getStateByName(value);
+        return state.orElseThrow(() -> new IllegalArgumentException("State not found: " + value));
+    }
+
+    private AdventureType resolveAdventureType(String value) {
+        Optional<AdventureType> adventureType = isId(value)
+                ? referenceDataService.getAdventureType(Long.parseLong(value))
+                : referenceDataService.getAdventureTypeByName(value);
+        return adventureType.orElseThrow(() -> new IllegalArgumentException("Adventure type not found: " + value));
+    }
+
+    private static boolean isId(String value) {
+        return !value.isEmpty() && value.length() < 19 && value.chars().allMatch(Character::isDigit);
+    }
+
+    private static Double parseDouble(String value, String field) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Double.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(field + " must be a number: " + value);
+        }
+    }
+
+    private RowSource csvRows(BufferedReader reader) throws IOException {
+        CsvReader csv = new CsvReader(reader, MAX_FIELD_LENGTH);
+        List<String> header = csv.readRecord();
+        if (header == null) {
+            return () -> null;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String column = normalize(header.get(i));
+            if (!FIELDS.contains(column)) {
+                throw new IllegalArgumentException("Unknown column: " + header.get(i));
+            }
+            columns.put(column, i);
+        }
+
+        return () -> {
+            List<String> record = csv.readRecord();
+            if (record == null) {
+                return null;
+            }
+            return new Row() {
+                @Override
+                public String text(String field) {
+                    Integer index = columns.get(field);
+                    if (index == null || index >= record.size()) {
+                        return null;
+                    }
+                    String value = record.get(index).trim();
+                    return value.isEmpty() ? null : value;
+                }
+
+                @Override
+                public boolean isBlank() {
+                    return record.size() == 1 && record.get(0).isBlank();
+                }
+            };
+        };
+    }
+
+    private RowSource ndjsonRows(BufferedReader reader) {
+        return () -> {
+            String line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            if (line.isBlank()) {
+                return BLANK_ROW;
+            }
+            JsonNode node;
+            try {
+                node = objectMapper.readTree(line);
+            } catch (JsonProcessingException e) {
+                return new InvalidRow("Invalid JSON: " + e.getOriginalMessage());
+            }
+            if (!node.isObject()) {
+                return new InvalidRow("Each line must be a JSON object");
+            }
+            Map<String, JsonNode> fields = new HashMap<>();
+            node.fields().forEachRemaining(entry -> fields.put(normalize(entry.getKey()), entry.getValue()));
+
+            return new Row() {
+                @Override
+                public String text(String field) {
+                    JsonNode value = fields.get(field);
+                    if (value == null || value.isNull() || value.isContainerNode()) {
+                        return null;
+                    }
+                    String text = value.asText().trim();
+                    return text.isEmpty() ? null : text;
+                }
+
+                @Override
+                public List<String> list(String field) {
+                    JsonNode value = fields.get(field);
+                    if (value == null || !value.isArray()) {
+                        return Row.super.list(field);
+                    }
+                    List<String> values = new ArrayList<>();
+                    value.forEach(element -> {
+                        String text = element.asText().trim();
+                        if (!text.isEmpty()) {
+                            values.add(text);
+                        }
+                    });
+                    return values;
+                }
+            };
+        };
+    }
+
+    private static String normalize(String name) {
+        return name.trim().replace("_", "").toLowerCase(Locale.ROOT);
+    }
+
+    private static final Row BLANK_ROW = new Row() {
+        @Override
+        public String text(String field) {
+            return null;
+        }
+
+        @Override
+        public boolean isBlank() {
+            return true;
+        }
+    };
+
+    private interface RowSource {
+        /** Next row, or null at the end of the input */
+        Row next() throws IOException;
+    }
+
+    private interface Row {
+        String text(String field);
+
+        default List<String> list(String field) {
+            String value = text(field);
+            if (value == null) {
+                return List.of();
+            }
+            return Arrays.stream(value.split(LIST_SEPARATOR))
+                    .map(String::trim)
+                    .filter(element -> !element.isEmpty())
+                    .toList();
+        }
+
+        default boolean isBlank() {
+            return false;
+        }
+    }
+
+    /**
+     * A line that could not be parsed; reported as that row's error
+     */
+    private record InvalidRow(String message) implements Row {
+        @Override
+        public String text(String field) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+
+    private class ImportRun {
+        private long totalRows;
+        private long imported;
+        private long failed;
+        private final List<HiddenGem> batch = new ArrayList<>();
+        private final List<Long> batchRows = new ArrayList<>();
+        private final List<HiddenGemImportResponse.RowError> errors = new ArrayList<>();
+        private boolean errorsTruncated;
+
+        private void add(long rowNumber, HiddenGem hiddenGem) {
+            batch.add(hiddenGem);
+            batchRows.add(rowNumber);
+        }
+
+        private void error(long rowNumber, String message) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new HiddenGemImportResponse.RowError(rowNumber, message));
+            } else {
+                errorsTruncated = true;
+            }
+        }
+    }
+}
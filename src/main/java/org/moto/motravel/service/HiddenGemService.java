@@ -1,23 +1,50 @@
 package org.moto.motravel.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.RawValue;
 import org.moto.motravel.model.AdventureType;
 import org.moto.motravel.model.HiddenGem;
 import org.moto.motravel.model.State;
-import org.moto.motravel.repository.AdventureTypeRepository;
+import org.moto.motravel.payload.response.CursorPageResponse;
+import org.moto.motravel.payload.response.HiddenGemClusterResponse;
+import org.moto.motravel.payload.response.HiddenGemFacetsResponse;
+import org.moto.motravel.payload.response.HiddenGemSummary;
+import org.moto.motravel.payload.response.NearestHiddenGemResponse;
 import org.moto.motravel.repository.HiddenGemRepository;
-import org.moto.motravel.repository.StateRepository;
+import org.moto.motravel.service.cache.ExpiringLruCache;
+import org.moto.motravel.service.index.ClusterIndex;
+import org.moto.motravel.service.index.FacetIndex;
+import org.moto.motravel.service.index.GeoUtils;
+import org.moto.motravel.service.index.InvertedIndex;
+import org.moto.motravel.service.index.KdTreeIndex;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -27,14 +54,74 @@ public class HiddenGemService {
     private HiddenGemRepository hiddenGemRepository;
 
     @Autowired
-    private StateRepository stateRepository;
+    private ReferenceDataService referenceDataService;
 
     @Autowired
-    private AdventureTypeRepository adventureTypeRepository;
+    private HiddenGemStatsService statsService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private static final int MAX_NEAREST_RESULTS = 100;
+
+    private final KdTreeIndex nearestGemIndex = new KdTreeIndex();
+
+    private final ClusterIndex gemClusterIndex = new ClusterIndex();
+
+    private final InvertedIndex gemTextIndex = new InvertedIndex();
+
+    private final FacetIndex gemFacetIndex = new FacetIndex();
+
+    // False until rebuildIndexes has loaded the in-memory indexes; requests that arrive
+    // earlier are answered by the equivalent repository queries
+    private volatile boolean indexesReady;
+
+    // Largest facet match set sorted by the database through an id list; kept well below
+    // PostgreSQL's bind parameter limit, larger sets use the join query instead
+    private static final int MAX_SORTED_ID_FILTER = 10_000;
+
+    // Serialized gem detail JSON keyed by gem id
+    private final ExpiringLruCache<Long, RawValue> gemDetailCache;
+
+    public HiddenGemService(@Value("${app.hidden-gems.detail-cache.max-entries:1000}") int detailCacheMaxEntries,
+                            @Value("${app.hidden-gems.detail-cache.ttl-seconds:600}") long detailCacheTtlSeconds) {
+        this.gemDetailCache = new ExpiringLruCache<>(detailCacheMaxEntries, Duration.ofSeconds(detailCacheTtlSeconds));
+    }
 
     /**
-     * Get all hidden gems with pagination and sorting
+     * Build the in-memory spatial and full-text indexes once seed data is in place
      */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuildIndexes() {
+        List<KdTreeIndex.Point> points = new ArrayList<>();
+        for (Object[] row : hiddenGemRepository.findAllCoordinates()) {
+            points.add(new KdTreeIndex.Point((Long) row[0], (Double) row[1], (Double) row[2]));
+        }
+        nearestGemIndex.rebuild(points);
+        gemClusterIndex.rebuild(points);
+
+        gemTextIndex.clear();
+        for (Object[] row : hiddenGemRepository.findAllSearchableText()) {
+            gemTextIndex.put((Long) row[0], searchableFields((String) row[1], (String) row[2], (String) row[3]));
+        }
+
+        Map<Long, Set<Long>> adventureTypeIdsByGem = new HashMap<>();
+        for (Object[] row : hiddenGemRepository.findAllAdventureTypeIds()) {
+            adventureTypeIdsByGem.computeIfAbsent((Long) row[0], id -> new HashSet<>()).add((Long) row[1]);
+        }
+        gemFacetIndex.clear();
+        for (Object[] row : hiddenGemRepository.findAllStateIds()) {
+            Long gemId = (Long) row[0];
+            gemFacetIndex.put(gemId, (Long) row[1], adventureTypeIdsByGem.getOrDefault(gemId, Set.of()));
+        }
+        indexesReady = true;
+    }
+
+    /**
+     * Get all hidden gems with full details, with pagination and sorting
+     */
+    @Transactional(readOnly = true)
     public Page<HiddenGem> getAllHiddenGems(int page, int size, String sortBy, String sortDirection) {
         Sort sort = Sort.by(Sort.Direction.fromString(sortDirection), sortBy);
         Pageable pageable = PageRequest.of(page, size, sort);
@@ -48,11 +135,45 @@ public class HiddenGemService {
         return hiddenGemRepository.findById(id);
     }
 
+    /**
+     * Get the serialized detail of a hidden gem, served from the detail cache when possible
+     */
+    @Transactional(readOnly = true)
+    public Optional<RawValue> getHiddenGemDetail(Long id) {
+        return Optional.ofNullable(gemDetailCache.get(id, this::loadHiddenGemDetail));
+    }
+
+    private RawValue loadHiddenGemDetail(Long id) {
+        return hiddenGemRepository.findById(id)
+                .map(hiddenGem -> {
+                    try {
+                        return new RawValue(objectMapper.writeValueAsString(hiddenGem));
+                    } catch (JsonProcessingException e) {
+                        throw new IllegalStateException("Failed to serialize hidden gem " + id, e);
+                    }
+                })
+                .orElse(null);
+    }
+
+    /**
+     * Drop every cached gem detail, e.g. after a state or adventure type the gems embed is renamed
+     */
+    public void evictAllHiddenGemDetails() {
+        TransactionHooks.nowAndAfterCommit(gemDetailCache::invalidateAll);
+    }
+
+    /**
+     * Hit ratio, load time and eviction counters of the gem detail cache
+     */
+    public ExpiringLruCache.Stats getDetailCacheStats() {
+        return gemDetailCache.stats();
+    }
+
     /**
      * Search hidden gems with filters
      */
-    public Page<HiddenGem> searchHiddenGems(Long stateId, List<Long> adventureTypeIds, String searchTerm, 
-                                          int page, int size, String sortBy, String sortDirection) {
+    public Page<HiddenGemSummary> searchHiddenGems(Long stateId, List<Long> adventureTypeIds, String searchTerm, 
+                                                 int page, int size, String sortBy, String sortDirection) {
         Sort sort = Sort.by(Sort.Direction.fromString(sortDirection), sortBy);
         Pageable pageable = PageRequest.of(page, size, sort);
 
@@ -66,21 +187,254 @@ public class HiddenGemService {
 
         // If no filters are applied, return all gems
         if (stateId == null && adventureTypeIds == null && searchTerm == null) {
-            return hiddenGemRepository.findAll(pageable);
+            return withDetails(hiddenGemRepository.findAllSummaries(pageable));
+        }
+
+        // Text searches are answered by the full-text index and ordered by relevance; until
+        // the index is loaded the database matches them with the requested sort instead
+        if (searchTerm != null) {
+            if (!indexesReady) {
+                return withDetails(hiddenGemRepository.findWithFilters(stateId, adventureTypeIds, searchTerm, pageable));
+            }
+            return searchByRelevance(stateId, adventureTypeIds, searchTerm, PageRequest.of(page, size));
+        }
+
+        if (!indexesReady) {
+            return withDetails(hiddenGemRepository.findWithFilters(stateId, adventureTypeIds, searchTerm, pageable));
+        }
+
+        // State / adventure type filters are bitmap operations. Pages in id order are cut
+        // straight from the matches; ids are handed out in pooled blocks, so any other
+        // order (createdAt included) is left to the database over just the matching ids
+        long[] matches = gemFacetIndex.filter(stateId, adventureTypeIds);
+        if ("id".equals(sortBy)) {
+            List<Long> pageIds = slice(matches, pageable.getOffset(), size, "desc".equalsIgnoreCase(sortDirection));
+            return new PageImpl<>(loadInOrder(pageIds), pageable, matches.length);
+        }
+        if (matches.length == 0) {
+            return new PageImpl<>(new ArrayList<>(), pageable, 0);
+        }
+        if (matches.length <= MAX_SORTED_ID_FILTER) {
+            // The id breaks ties so pages never overlap or skip rows
+            Sort.Direction direction = Sort.Direction.fromString(sortDirection);
+            Pageable byIds = PageRequest.of(page, size, Sort.by(direction, sortBy).and(Sort.by(direction, "id")));
+            List<Long> ids = Arrays.stream(matches).boxed().collect(Collectors.toList());
+            return new PageImpl<>(withDetails(hiddenGemRepository.findSummariesByIdIn(ids, byIds)),
+                    pageable, matches.length);
         }
 
         // Use the complex search query with cleaned parameters
-        return hiddenGemRepository.findWithFilters(stateId, adventureTypeIds, searchTerm, pageable);
+        return withDetails(hiddenGemRepository.findWithFilters(stateId, adventureTypeIds, searchTerm, pageable));
+    }
+
+    /**
+     * Rank matches with the full-text index, apply the remaining filters to the ranked
+     * ids and load only the gems on the requested page
+     */
+    private Page<HiddenGemSummary> searchByRelevance(Long stateId, List<Long> adventureTypeIds, String searchTerm,
+                                                     Pageable pageable) {
+        List<Long> rankedIds = gemTextIndex.search(searchTerm).stream()
+                .map(InvertedIndex.Match::id)
+                .collect(Collectors.toList());
+
+        if (stateId != null || adventureTypeIds != null) {
+            long[] allowedIds = gemFacetIndex.filter(stateId, adventureTypeIds);
+            rankedIds.removeIf(id -> Arrays.binarySearch(allowedIds, id) < 0);
+        }
+
+        int from = (int) Math.min(pageable.getOffset(), rankedIds.size());
+        int to = Math.min(from + pageable.getPageSize(), rankedIds.size());
+        return new PageImpl<>(loadInOrder(rankedIds.subList(from, to)), pageable, rankedIds.size());
+    }
+
+    /**
+     * Take one page from ids sorted in ascending order, walking them backwards when descending
+     */
+    private static List<Long> slice(long[] sortedIds, long offset, int size, boolean descending) {
+        int from = (int) Math.min(offset, sortedIds.length);
+        int to = (int) Math.min(from + (long) Math.max(size, 0), sortedIds.length);
+        List<Long> ids = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            ids.add(descending ? sortedIds[sortedIds.length - 1 - i] : sortedIds[i]);
+        }
+        return ids;
+    }
+
+    /**
+     * Load gem summaries by id, keeping the order of the ids
+     */
+    private List<HiddenGemSummary> loadInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, HiddenGemSummary> summariesById = hiddenGemRepository.findSummariesByIdIn(ids).stream()
+                .collect(Collectors.toMap(HiddenGemSummary::getId, Function.identity()));
+        List<HiddenGemSummary> summaries = ids.stream()
+                .map(summariesById::get)
+                .filter(summary -> summary != null)
+                .collect(Collectors.toList());
+        return withDetails(summaries);
+    }
+
+    private Page<HiddenGemSummary> withDetails(Page<HiddenGemSummary> page) {
+        withDetails(page.getContent());
+        return page;
+    }
+
+    /**
+     * Fill in the first image and adventure type ids of a page of summaries with one query each
+     */
+    private List<HiddenGemSummary> withDetails(List<HiddenGemSummary> summaries) {
+        if (summaries.isEmpty()) {
+            return summaries;
+        }
+        List<Long> ids = summaries.stream().map(HiddenGemSummary::getId).collect(Collectors.toList());
+        Map<Long, HiddenGemSummary> summariesById = summaries.stream()
+                .collect(Collectors.toMap(HiddenGemSummary::getId, Function.identity()));
+
+        for (Object[] row : hiddenGemRepository.findFirstImageUrls(ids)) {
+            summariesById.get((Long) row[0]).setFirstImageUrl((String) row[1]);
+        }
+        for (Object[] row : hiddenGemRepository.findAdventureTypeIdsByGemIds(ids)) {
+            summariesById.get((Long) row[0]).getAdventureTypeIds().add((Long) row[1]);
+        }
+        return summaries;
+    }
+
+    /**
+     * Count matching gems per state and per adventure type for the given filters
+     */
+    public HiddenGemFacetsResponse getFacetCounts(Long stateId, List<Long> adventureTypeIds, String searchTerm) {
+        if (!indexesReady) {
+            return countFacetsInDatabase(stateId, adventureTypeIds, searchTerm);
+        }
+        List<Long> textMatches = null;
+        if (searchTerm != null && !searchTerm.trim().isEmpty()) {
+            textMatches = gemTextIndex.search(searchTerm).stream()
+                    .map(InvertedIndex.Match::id)
+                    .collect(Collectors.toList());
+        }
+        FacetIndex.FacetCounts counts = gemFacetIndex.count(textMatches, stateId, adventureTypeIds);
+        return new HiddenGemFacetsResponse(counts.total(), counts.states(), counts.adventureTypes());
+    }
+
+    /**
+     * The same counts as the facet index, grouped by the database
+     */
+    private HiddenGemFacetsResponse countFacetsInDatabase(Long stateId, List<Long> adventureTypeIds,
+                                                          String searchTerm) {
+        if (searchTerm != null && searchTerm.trim().isEmpty()) {
+            searchTerm = null;
+        }
+        if (adventureTypeIds != null && adventureTypeIds.isEmpty()) {
+            adventureTypeIds = null;
+        }
+        long total = hiddenGemRepository.countWithFilters(stateId, adventureTypeIds, searchTerm);
+        // Each facet ignores its own filter, as in FacetIndex.count
+        Map<Long, Long> states = toCountMap(
+                hiddenGemRepository.countByStateWithFilters(null, adventureTypeIds, searchTerm));
+        Map<Long, Long> adventureTypes = toCountMap(
+                hiddenGemRepository.countByAdventureTypeWithFilters(stateId, null, searchTerm));
+        return new HiddenGemFacetsResponse(total, states, adventureTypes);
+    }
+
+    private static Map<Long, Long> toCountMap(List<Object[]> rows) {
+        Map<Long, Long> counts = new HashMap<>();
+        for (Object[] row : rows) {
+            counts.put((Long) row[0], (Long) row[1]);
+        }
+        return counts;
+    }
+
+    /**
+     * Search hidden gems with filters using keyset pagination on (createdAt, id).
+     * The cursor is the opaque value returned as nextCursor by the previous page;
+     * a null or empty cursor starts from the beginning. No count query is run.
+     */
+    public CursorPageResponse<HiddenGemSummary> searchHiddenGemsByCursor(Long stateId, List<Long> adventureTypeIds,
+                                                                       String searchTerm, String cursor,
+                                                                       int size, String sortDirection) {
+        if (searchTerm != null && searchTerm.trim().isEmpty()) {
+            searchTerm = null;
+        }
+        if (adventureTypeIds != null && adventureTypeIds.isEmpty()) {
+            adventureTypeIds = null;
+        }
+
+        // Fetch one extra row to learn whether another page follows
+        size = Math.max(size, 1);
+        Pageable limit = PageRequest.of(0, size + 1);
+        boolean ascending = "asc".equalsIgnoreCase(sortDirection);
+        List<HiddenGemSummary> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = ascending
+                    ? hiddenGemRepository.findFirstKeysetPageAsc(stateId, adventureTypeIds, searchTerm, limit)
+                    : hiddenGemRepository.findFirstKeysetPageDesc(stateId, adventureTypeIds, searchTerm, limit);
+        } else {
+            KeysetCursor position = decodeCursor(cursor);
+            rows = ascending
+                    ? hiddenGemRepository.findKeysetPageAscAfter(stateId, adventureTypeIds, searchTerm,
+                            position.createdAt(), position.id(), limit)
+                    : hiddenGemRepository.findKeysetPageDescAfter(stateId, adventureTypeIds, searchTerm,
+                            position.createdAt(), position.id(), limit);
+        }
+
+        boolean hasNext = rows.size() > size;
+        List<HiddenGemSummary> content = withDetails(hasNext ? rows.subList(0, size) : rows);
+        String nextCursor = hasNext ? encodeCursor(content.get(content.size() - 1)) : null;
+        return new CursorPageResponse<>(content, content.size(), nextCursor, hasNext);
     }
 
     /**
      * Find nearby hidden gems
      */
-    public List<HiddenGem> findNearbyGems(Double latitude, Double longitude, Double radiusKm) {
+    public List<HiddenGemSummary> findNearbyGems(Double latitude, Double longitude, Double radiusKm) {
         if (radiusKm == null || radiusKm <= 0) {
             radiusKm = 50.0; // Default 50km radius
         }
-        return hiddenGemRepository.findNearbyGems(latitude, longitude, radiusKm);
+        GeoUtils.BoundingBox box = GeoUtils.boundingBox(latitude, longitude, radiusKm);
+        return withDetails(hiddenGemRepository.findNearbyGems(latitude, longitude, radiusKm,
+                box.minLatitude(), box.maxLatitude(), box.minLongitude(), box.maxLongitude()));
+    }
+
+    /**
+     * Find the k hidden gems closest to a location, sorted by distance
+     */
+    @Transactional(readOnly = true)
+    public List<NearestHiddenGemResponse> findNearestGems(Double latitude, Double longitude, int k) {
+        int limit = Math.min(Math.max(k, 1), MAX_NEAREST_RESULTS);
+        if (!indexesReady) {
+            return withDetails(hiddenGemRepository.findNearestSummaries(latitude, longitude, PageRequest.of(0, limit)))
+                    .stream()
+                    .map(summary -> new NearestHiddenGemResponse(summary, GeoUtils.haversineKm(
+                            latitude, longitude, summary.getLatitude(), summary.getLongitude())))
+                    .collect(Collectors.toList());
+        }
+        List<KdTreeIndex.Neighbour> neighbours = nearestGemIndex.nearest(latitude, longitude, limit);
+
+        List<Long> ids = neighbours.stream().map(KdTreeIndex.Neighbour::id).collect(Collectors.toList());
+        Map<Long, HiddenGemSummary> summariesById = loadInOrder(ids).stream()
+                .collect(Collectors.toMap(HiddenGemSummary::getId, Function.identity()));
+
+        List<NearestHiddenGemResponse> results = new ArrayList<>();
+        for (KdTreeIndex.Neighbour neighbour : neighbours) {
+            HiddenGemSummary summary = summariesById.get(neighbour.id());
+            if (summary != null) {
+                results.add(new NearestHiddenGemResponse(summary, neighbour.distanceKm()));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Get precomputed map clusters for a bounding box at a zoom level
+     */
+    public List<HiddenGemClusterResponse> getClusters(double minLatitude, double minLongitude,
+                                                      double maxLatitude, double maxLongitude, int zoom) {
+        return gemClusterIndex.clusters(minLatitude, minLongitude, maxLatitude, maxLongitude, zoom).stream()
+                .map(cluster -> new HiddenGemClusterResponse(
+                        cluster.latitude(), cluster.longitude(), cluster.count(), cluster.id()))
+                .collect(Collectors.toList());
     }
 
     /**
@@ -88,20 +442,35 @@ public class HiddenGemService {
      */
     public HiddenGem createHiddenGem(HiddenGem hiddenGem) {
         // Validate state exists
-        State state = stateRepository.findById(hiddenGem.getState().getId())
+        State state = referenceDataService.getState(hiddenGem.getState().getId())
                 .orElseThrow(() -> new IllegalArgumentException("State not found with id: " + hiddenGem.getState().getId()));
         hiddenGem.setState(state);
 
         // Validate and set adventure types
         Set<AdventureType> validatedAdventureTypes = new HashSet<>();
         for (AdventureType adventureType : hiddenGem.getAdventureTypes()) {
-            AdventureType validType = adventureTypeRepository.findById(adventureType.getId())
+            AdventureType validType = referenceDataService.getAdventureType(adventureType.getId())
                     .orElseThrow(() -> new IllegalArgumentException("Adventure type not found with id: " + adventureType.getId()));
             validatedAdventureTypes.add(validType);
         }
         hiddenGem.setAdventureTypes(validatedAdventureTypes);
 
-        return hiddenGemRepository.save(hiddenGem);
+        HiddenGem savedGem = hiddenGemRepository.save(hiddenGem);
+        indexGemAfterCommit(savedGem);
+        statsService.recordGem(savedGem);
+        return savedGem;
+    }
+
+    /**
+     * Save gems whose state and adventure types were already resolved from the reference
+     * data snapshot, in one transaction. They are added to the in-memory indexes only
+     * once it commits, so a rejected batch leaves nothing behind.
+     */
+    public List<HiddenGem> createHiddenGems(List<HiddenGem> hiddenGems) {
+        List<HiddenGem> savedGems = hiddenGemRepository.saveAll(hiddenGems);
+        savedGems.forEach(statsService::recordGem);
+        savedGems.forEach(this::indexGemAfterCommit);
+        return savedGems;
     }
 
     /**
@@ -124,7 +493,7 @@ public class HiddenGemService {
 
         // Update state if provided
         if (hiddenGemDetails.getState() != null && hiddenGemDetails.getState().getId() != null) {
-            State state = stateRepository.findById(hiddenGemDetails.getState().getId())
+            State state = referenceDataService.getState(hiddenGemDetails.getState().getId())
                     .orElseThrow(() -> new IllegalArgumentException("State not found with id: " + hiddenGemDetails.getState().getId()));
             hiddenGem.setState(state);
         }
@@ -133,14 +502,18 @@ public class HiddenGemService {
         if (hiddenGemDetails.getAdventureTypes() != null && !hiddenGemDetails.getAdventureTypes().isEmpty()) {
             Set<AdventureType> validatedAdventureTypes = new HashSet<>();
             for (AdventureType adventureType : hiddenGemDetails.getAdventureTypes()) {
-                AdventureType validType = adventureTypeRepository.findById(adventureType.getId())
+                AdventureType validType = referenceDataService.getAdventureType(adventureType.getId())
                         .orElseThrow(() -> new IllegalArgumentException("Adventure type not found with id: " + adventureType.getId()));
                 validatedAdventureTypes.add(validType);
             }
             hiddenGem.setAdventureTypes(validatedAdventureTypes);
         }
 
-        return hiddenGemRepository.save(hiddenGem);
+        HiddenGem savedGem = hiddenGemRepository.save(hiddenGem);
+        indexGemAfterCommit(savedGem);
+        statsService.recordGem(savedGem);
+        invalidateDetailAfterCommit(id);
+        return savedGem;
     }
 
     /**
@@ -150,39 +523,44 @@ public class HiddenGemService {
         HiddenGem hiddenGem = hiddenGemRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Hidden gem not found with id: " + id));
         hiddenGemRepository.delete(hiddenGem);
+        unindexGemAfterCommit(id);
+        invalidateDetailAfterCommit(id);
+        statsService.removeGemAfterCommit(id);
     }
 
     /**
      * Get hidden gems by state
      */
-    public Page<HiddenGem> getHiddenGemsByState(Long stateId, int page, int size, String sortBy, String sortDirection) {
+    public Page<HiddenGemSummary> getHiddenGemsByState(Long stateId, int page, int size, String sortBy, String sortDirection) {
         Sort sort = Sort.by(Sort.Direction.fromString(sortDirection), sortBy);
         Pageable pageable = PageRequest.of(page, size, sort);
-        return hiddenGemRepository.findByStateId(stateId, pageable);
+        return withDetails(hiddenGemRepository.findSummariesByStateId(stateId, pageable));
     }
 
     /**
      * Get hidden gems by adventure types
      */
-    public Page<HiddenGem> getHiddenGemsByAdventureTypes(List<Long> adventureTypeIds, int page, int size, String sortBy, String sortDirection) {
+    public Page<HiddenGemSummary> getHiddenGemsByAdventureTypes(List<Long> adventureTypeIds, int page, int size, String sortBy, String sortDirection) {
         Sort sort = Sort.by(Sort.Direction.fromString(sortDirection), sortBy);
         Pageable pageable = PageRequest.of(page, size, sort);
-        return hiddenGemRepository.findByAdventureTypeIds(adventureTypeIds, pageable);
+        return withDetails(hiddenGemRepository.findSummariesByAdventureTypeIds(adventureTypeIds, pageable));
     }
 
     /**
-     * Get statistics
+     * Gem counts per state and adventure type, from the facet index
      */
-    public long getTotalHiddenGemsCount() {
-        return hiddenGemRepository.count();
-    }
-
     public long getHiddenGemsCountByState(Long stateId) {
-        return hiddenGemRepository.countByStateId(stateId);
+        if (!indexesReady) {
+            return hiddenGemRepository.countWithFilters(stateId, null, null);
+        }
+        return gemFacetIndex.countByState(stateId);
     }
 
     public long getHiddenGemsCountByAdventureType(Long adventureTypeId) {
-        return hiddenGemRepository.countByAdventureTypeId(adventureTypeId);
+        if (!indexesReady) {
+            return hiddenGemRepository.countWithFilters(null, List.of(adventureTypeId), null);
+        }
+        return gemFacetIndex.countByAdventureType(adventureTypeId);
     }
 
     /**
@@ -211,4 +589,68 @@ public class HiddenGemService {
         }
         return sortDirection.toLowerCase();
     }
+
+    /**
+     * Bring the in-memory indexes in line with a gem's saved state once the transaction
+     * commits; the insert or update is only flushed at commit, so a rollback must not
+     * leave the gem behind in them
+     */
+    private void indexGemAfterCommit(HiddenGem hiddenGem) {
+        TransactionHooks.afterCommit(() -> {
+            nearestGemIndex.put(hiddenGem.getId(), hiddenGem.getLatitude(), hiddenGem.getLongitude());
+            gemClusterIndex.put(hiddenGem.getId(), hiddenGem.getLatitude(), hiddenGem.getLongitude());
+            gemTextIndex.put(hiddenGem.getId(), searchableFields(
+                    hiddenGem.getName(), hiddenGem.getDescription(), hiddenGem.getNearestCity()));
+            gemFacetIndex.put(hiddenGem.getId(), hiddenGem.getState().getId(),
+                    hiddenGem.getAdventureTypes().stream().map(AdventureType::getId).collect(Collectors.toSet()));
+        });
+    }
+
+    /**
+     * Drop a deleted gem from the in-memory indexes once the transaction commits
+     */
+    private void unindexGemAfterCommit(Long id) {
+        TransactionHooks.afterCommit(() -> {
+            nearestGemIndex.remove(id);
+            gemClusterIndex.remove(id);
+            gemTextIndex.remove(id);
+            gemFacetIndex.remove(id);
+        });
+    }
+
+    /**
+     * Name matches outrank city matches, which outrank description matches
+     */
+    private static List<InvertedIndex.Field> searchableFields(String name, String description, String nearestCity) {
+        return List.of(
+                new InvertedIndex.Field(name, 3),
+                new InvertedIndex.Field(nearestCity, 2),
+                new InvertedIndex.Field(description, 1));
+    }
+
+    /**
+     * Invalidate now so this transaction's own reads miss, and again after commit so a
+     * concurrent read of the old row cannot leave it cached
+     */
+    private void invalidateDetailAfterCommit(Long id) {
+        TransactionHooks.nowAndAfterCommit(() -> gemDetailCache.invalidate(id));
+    }
+
+    private String encodeCursor(HiddenGemSummary summary) {
+        String raw = summary.getCreatedAt() + "|" + summary.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private KeysetCursor decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new KeysetCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private record KeysetCursor(LocalDateTime createdAt, Long id) {}
 }
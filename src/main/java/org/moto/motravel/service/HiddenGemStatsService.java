@@ -0,0 +1,231 @@
+package org.moto.motravel.service;
+
+import org.moto.motravel.model.AdventureType;
+import org.moto.motravel.model.HiddenGem;
+import org.moto.motravel.model.State;
+import org.moto.motravel.payload.response.BookmarkedGemResponse;
+import org.moto.motravel.payload.response.HiddenGemStatsResponse;
+import org.moto.motravel.repository.HiddenGemBookmarkRepository;
+import org.moto.motravel.repository.HiddenGemRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Hidden gem statistics kept as counters that are adjusted when gems and bookmarks
+ * are written, so the stats endpoint never scans or counts rows. Changes are applied
+ * after their transaction commits, and the counters are rebuilt from the database
+ * periodically to repair anything a failed or concurrent update left behind.
+ */
+@Service
+public class HiddenGemStatsService {
+
+    private static final int MOST_BOOKMARKED_LIMIT = 10;
+    private static final int MAX_RECONCILE_ATTEMPTS = 5;
+
+    @Autowired
+    private HiddenGemRepository hiddenGemRepository;
+
+    @Autowired
+    private HiddenGemBookmarkRepository bookmarkRepository;
+
+    @Autowired
+    private ReferenceDataService referenceDataService;
+
+    private final Map<Long, GemFacts> gems = new HashMap<>();
+    private final Map<Long, Long> gemsByState = new HashMap<>();
+    private final Map<Long, Long> gemsByAdventureType = new HashMap<>();
+    private final Map<String, Long> gemsByDifficulty = new HashMap<>();
+    private final Map<Long, Long> bookmarkCounts = new HashMap<>();
+    private final TreeSet<BookmarkRank> bookmarkRanking = new TreeSet<>(
+            Comparator.comparingLong(BookmarkRank::count).reversed().thenComparing(BookmarkRank::hiddenGemId));
+
+    // Bumped by every change applied to the counters, so a rebuild can tell whether one
+    // landed while it was reading
+    private long version;
+    private boolean loaded;
+
+    /**
+     * Rebuild every counter from the database. The rows are read without holding the lock,
+     * so a change applied meanwhile may be missing from them; the read is then repeated.
+     * If changes keep landing, the incrementally kept counters stay until the next run.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.hidden-gems.stats.reconcile-interval-ms:600000}",
+               initialDelayString = "${app.hidden-gems.stats.reconcile-interval-ms:600000}")
+    @Transactional(readOnly = true)
+    public void reconcile() {
+        for (int attempt = 0; attempt < MAX_RECONCILE_ATTEMPTS; attempt++) {
+            long startVersion;
+            synchronized (this) {
+                startVersion = version;
+            }
+
+            Map<Long, Set<Long>> adventureTypeIdsByGem = new HashMap<>();
+            for (Object[] row : hiddenGemRepository.findAllAdventureTypeIds()) {
+                adventureTypeIdsByGem.computeIfAbsent((Long) row[0], id -> new HashSet<>()).add((Long) row[1]);
+            }
+            List<GemFacts> facts = new ArrayList<>();
+            for (Object[] row : hiddenGemRepository.findAllStatisticsFacts()) {
+                Long gemId = (Long) row[0];
+                facts.add(new GemFacts(gemId, (String) row[1], (Long) row[2], (String) row[3],
+                        adventureTypeIdsByGem.getOrDefault(gemId, Set.of())));
+            }
+            List<Object[]> bookmarkRows = bookmarkRepository.countGroupedByHiddenGemId();
+
+            synchronized (this) {
+                // Before the first load there are no counters worth keeping, so the last
+                // attempt is taken even if it missed a change
+                boolean lastChance = !loaded && attempt == MAX_RECONCILE_ATTEMPTS - 1;
+                if (version != startVersion && !lastChance) {
+                    continue;
+                }
+                loaded = true;
+                gems.clear();
+                gemsByState.clear();
+                gemsByAdventureType.clear();
+                gemsByDifficulty.clear();
+                bookmarkCounts.clear();
+                bookmarkRanking.clear();
+                facts.forEach(this::addGem);
+                for (Object[] row : bookmarkRows) {
+                    setBookmarkCount((Long) row[0], (Long) row[1]);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Count a created or updated gem once the current transaction commits
+     */
+    public void recordGem(HiddenGem hiddenGem) {
+        GemFacts facts = new GemFacts(hiddenGem.getId(), hiddenGem.getName(),
+                hiddenGem.getState() != null ? hiddenGem.getState().getId() : null,
+                hiddenGem.getDifficultyLevel(),
+                hiddenGem.getAdventureTypes().stream().map(AdventureType::getId).collect(Collectors.toSet()));
+        TransactionHooks.afterCommit(() -> {
+            synchronized (this) {
+                version++;
+                removeGem(facts.id());
+                addGem(facts);
+            }
+        });
+    }
+
+    /**
+     * Forget a deleted gem and its bookmarks once the current transaction commits
+     */
+    public void removeGemAfterCommit(Long hiddenGemId) {
+        TransactionHooks.afterCommit(() -> {
+            synchronized (this) {
+                version++;
+                removeGem(hiddenGemId);
+                setBookmarkCount(hiddenGemId, 0);
+            }
+        });
+    }
+
+    public void bookmarkAdded(Long hiddenGemId) {
+        TransactionHooks.afterCommit(() -> adjustBookmarkCount(hiddenGemId, 1));
+    }
+
+    public void bookmarkRemoved(Long hiddenGemId) {
+        TransactionHooks.afterCommit(() -> adjustBookmarkCount(hiddenGemId, -1));
+    }
+
+    /**
+     * Current totals; the work is proportional to the number of states, adventure types,
+     * difficulty levels and ranked gems, not to the number of gems or bookmarks
+     */
+    public synchronized HiddenGemStatsResponse getStatistics() {
+        Map<String, Long> byState = new LinkedHashMap<>();
+        for (State state : referenceDataService.getStates()) {
+            byState.put(state.getName(), gemsByState.getOrDefault(state.getId(), 0L));
+        }
+        Map<String, Long> byAdventureType = new LinkedHashMap<>();
+        for (AdventureType adventureType : referenceDataService.getAdventureTypes()) {
+            byAdventureType.put(adventureType.getName(), gemsByAdventureType.getOrDefault(adventureType.getId(), 0L));
+        }
+
+        List<BookmarkedGemResponse> mostBookmarked = new ArrayList<>();
+        Iterator<BookmarkRank> ranks = bookmarkRanking.iterator();
+        while (ranks.hasNext() && mostBookmarked.size() < MOST_BOOKMARKED_LIMIT) {
+            BookmarkRank rank = ranks.next();
+            GemFacts facts = gems.get(rank.hiddenGemId());
+            if (facts != null) {
+                mostBookmarked.add(new BookmarkedGemResponse(rank.hiddenGemId(), facts.name(), rank.count()));
+            }
+        }
+
+        return new HiddenGemStatsResponse(gems.size(), byState, byAdventureType,
+                new HashMap<>(gemsByDifficulty), mostBookmarked);
+    }
+
+    private void addGem(GemFacts facts) {
+        gems.put(facts.id(), facts);
+        if (facts.stateId() != null) {
+            gemsByState.merge(facts.stateId(), 1L, Long::sum);
+        }
+        for (Long adventureTypeId : facts.adventureTypeIds()) {
+            gemsByAdventureType.merge(adventureTypeId, 1L, Long::sum);
+        }
+        if (facts.difficultyLevel() != null) {
+            gemsByDifficulty.merge(facts.difficultyLevel(), 1L, Long::sum);
+        }
+    }
+
+    private void removeGem(Long hiddenGemId) {
+        GemFacts facts = gems.remove(hiddenGemId);
+        if (facts == null) {
+            return;
+        }
+        if (facts.stateId() != null) {
+            decrement(gemsByState, facts.stateId());
+        }
+        for (Long adventureTypeId : facts.adventureTypeIds()) {
+            decrement(gemsByAdventureType, adventureTypeId);
+        }
+        if (facts.difficultyLevel() != null) {
+            decrement(gemsByDifficulty, facts.difficultyLevel());
+        }
+    }
+
+    private synchronized void adjustBookmarkCount(Long hiddenGemId, long delta) {
+        version++;
+        setBookmarkCount(hiddenGemId, Math.max(0, bookmarkCounts.getOrDefault(hiddenGemId, 0L) + delta));
+    }
+
+    private void setBookmarkCount(Long hiddenGemId, long count) {
+        Long previous = count > 0 ? bookmarkCounts.put(hiddenGemId, count) : bookmarkCounts.remove(hiddenGemId);
+        if (previous != null) {
+            bookmarkRanking.remove(new BookmarkRank(previous, hiddenGemId));
+        }
+        if (count > 0) {
+            bookmarkRanking.add(new BookmarkRank(count, hiddenGemId));
+        }
+    }
+
+    private static <K> void decrement(Map<K, Long> counts, K key) {
+        counts.computeIfPresent(key, (k, count) -> count <= 1 ? null : count - 1);
+    }
+
+    private record GemFacts(Long id, String name, Long stateId, String difficultyLevel, Set<Long> adventureTypeIds) {}
+
+    private record BookmarkRank(long count, Long hiddenGemId) {}
+}
@@ -0,0 +1,137 @@
+package org.moto.motravel.service;
+
+import org.moto.motravel.model.AdventureType;
+import org.moto.motravel.model.State;
+import org.moto.motravel.repository.AdventureTypeRepository;
+import org.moto.motravel.repository.StateRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable in-memory snapshot of the states and adventure types. The tables hold a
+ * few dozen rows that change only through the admin APIs, so public reads and gem
+ * validation are answered from memory and the whole snapshot is swapped in one
+ * step after every admin write commits.
+ */
+@Service
+public class ReferenceDataService {
+
+    @Autowired
+    private StateRepository stateRepository;
+
+    @Autowired
+    private AdventureTypeRepository adventureTypeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * Reload the snapshot once seed data is in place
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildSnapshot() {
+        reload();
+    }
+
+    /**
+     * Reload the snapshot after the current transaction commits, or right away outside one
+     */
+    public void rebuildAfterCommit() {
+        TransactionHooks.afterCommit(this::reload);
+    }
+
+    public List<State> getStates() {
+        return snapshot().states();
+    }
+
+    public Optional<State> getState(Long id) {
+        return Optional.ofNullable(snapshot().statesById().get(id));
+    }
+
+    public Optional<State> getStateByName(String name) {
+        return Optional.ofNullable(snapshot().statesByName().get(name));
+    }
+
+    /**
+     * States whose name contains the term, ignoring case, ordered by name
+     */
+    public List<State> searchStates(String searchTerm) {
+        String term = searchTerm.toLowerCase(Locale.ROOT);
+        return snapshot().states().stream()
+                .filter(state -> state.getName().toLowerCase(Locale.ROOT).contains(term))
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    public List<AdventureType> getAdventureTypes() {
+        return snapshot().adventureTypes();
+    }
+
+    public Optional<AdventureType> getAdventureType(Long id) {
+        return Optional.ofNullable(snapshot().adventureTypesById().get(id));
+    }
+
+    public Optional<AdventureType> getAdventureTypeByName(String name) {
+        return Optional.ofNullable(snapshot().adventureTypesByName().get(name));
+    }
+
+    /**
+     * Adventure types whose name contains the term, ignoring case, ordered by name
+     */
+    public List<AdventureType> searchAdventureTypes(String searchTerm) {
+        String term = searchTerm.toLowerCase(Locale.ROOT);
+        return snapshot().adventureTypes().stream()
+                .filter(adventureType -> adventureType.getName().toLowerCase(Locale.ROOT).contains(term))
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        return current != null ? current : reload();
+    }
+
+    /**
+     * Reloads are serialized and each runs in its own transaction, so the last one to
+     * finish has seen every committed write
+     */
+    private synchronized Snapshot reload() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        template.setReadOnly(true);
+        Snapshot loaded = template.execute(status -> new Snapshot(
+                List.copyOf(stateRepository.findAllOrderByName()),
+                List.copyOf(adventureTypeRepository.findAllOrderByName())));
+        snapshot = loaded;
+        return loaded;
+    }
+
+    private record Snapshot(List<State> states, Map<Long, State> statesById, Map<String, State> statesByName,
+                            List<AdventureType> adventureTypes, Map<Long, AdventureType> adventureTypesById,
+                            Map<String, AdventureType> adventureTypesByName) {
+
+        private Snapshot(List<State> states, List<AdventureType> adventureTypes) {
+            this(states, index(states, State::getId), index(states, State::getName),
+                 adventureTypes, index(adventureTypes, AdventureType::getId),
+                 index(adventureTypes, AdventureType::getName));
+        }
+
+        private static <K, V> Map<K, V> index(List<V> values, Function<V, K> key) {
+            return Map.copyOf(values.stream().collect(Collectors.toMap(key, Function.identity(),
+                    (first, second) -> first, LinkedHashMap::new)));
+        }
+    }
+}
@@ -16,25 +16,31 @@ public class StateService {
     @Autowired
     private StateRepository stateRepository;
 
+    @Autowired
+    private HiddenGemService hiddenGemService;
+
+    @Autowired
+    private ReferenceDataService referenceDataService;
+
     /**
      * Get all states ordered by name
      */
     public List<State> getAllStates() {
-        return stateRepository.findAllOrderByName();
+        return referenceDataService.getStates();
     }
 
     /**
      * Get state by ID
      */
     public Optional<State> getStateById(Long id) {
-        return stateRepository.findById(id);
+        return referenceDataService.getState(id);
     }
 
     /**
      * Get state by name
      */
     public Optional<State> getStateByName(String name) {
-        return stateRepository.findByName(name);
+        return referenceDataService.getStateByName(name);
     }
 
     /**
@@ -44,7 +50,9 @@ public class StateService {
         if (stateRepository.existsByName(state.getName())) {
             throw new IllegalArgumentException("State with name '" + state.getName() + "' already exists");
         }
-        return stateRepository.save(state);
+        State savedState = stateRepository.save(state);
+        referenceDataService.rebuildAfterCommit();
+        return savedState;
     }
 
     /**
@@ -61,7 +69,11 @@ public class StateService {
         }
 
         state.setName(stateDetails.getName());
-        return stateRepository.save(state);
+        State savedState = stateRepository.save(state);
+        // Cached gem details embed the state name
+        hiddenGemService.evictAllHiddenGemDetails();
+        referenceDataService.rebuildAfterCommit();
+        return savedState;
     }
 
     /**
@@ -78,13 +90,14 @@ public class StateService {
         }
 
         stateRepository.delete(state);
+        referenceDataService.rebuildAfterCommit();
     }
 
     /**
      * Search states by name
      */
     public List<State> searchStatesByName(String searchTerm) {
-        return stateRepository.findByNameContainingIgnoreCase(searchTerm);
+        return referenceDataService.searchStates(searchTerm);
     }
 
     /**
@@ -0,0 +1,41 @@
+package org.moto.motravel.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Defers in-memory side effects of a write until its transaction has committed, so a
+ * rolled-back write never shows up in caches, indexes or counters.
+ */
+public final class TransactionHooks {
+
+    private TransactionHooks() {}
+
+    /**
+     * Run the action after the current transaction commits, or right away outside one
+     */
+    public static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Run the action now and, inside a transaction, again after it commits. Suits cache
+     * invalidation: the transaction's own reads miss, and a concurrent read of the old
+     * state cannot leave it cached.
+     */
+    public static void nowAndAfterCommit(Runnable action) {
+        action.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            afterCommit(action);
+        }
+    }
+}
@@ -1,13 +1,22 @@
 package org.moto.motravel.service;
 
 import org.moto.motravel.model.Vehicle;
+import org.moto.motravel.payload.response.AvailableVehicleResponse;
 import org.moto.motravel.repository.VehicleRepository;
+import org.moto.motravel.service.index.GeoUtils;
+import org.moto.motravel.service.index.SpatialGridIndex;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 public class VehicleService {
@@ -15,6 +24,29 @@ public class VehicleService {
     @Autowired
     private VehicleRepository vehicleRepository;
 
+    @Autowired
+    private BookingService bookingService;
+
+    private final SpatialGridIndex<Vehicle> availableVehicleIndex;
+
+    // False until the index has been loaded, and while it is being rebuilt
+    private volatile boolean spatialIndexReady;
+
+    public VehicleService(@Value("${app.vehicles.index.cell-size-degrees:0.05}") double cellSizeDegrees) {
+        this.availableVehicleIndex = new SpatialGridIndex<>(cellSizeDegrees);
+    }
+
+    /**
+     * Load available vehicles into the spatial index once seed data is in place
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildSpatialIndex() {
+        spatialIndexReady = false;
+        availableVehicleIndex.clear();
+        vehicleRepository.findByAvailability(true).forEach(this::indexVehicle);
+        spatialIndexReady = true;
+    }
+
     /**
      * Get all vehicles
      */
@@ -40,7 +72,52 @@ public class VehicleService {
      * Find vehicles near a location within a specified radius (in km)
      */
     public List<Vehicle> findVehiclesNearLocation(Double latitude, Double longitude, Double radius) {
-        return vehicleRepository.findVehiclesNearLocation(latitude, longitude, radius);
+        return findAvailableWithinRadius(latitude, longitude, radius).stream()
+                .map(SpatialGridIndex.Hit::value)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Find vehicles near a location that are free for the whole requested period,
+     * optionally restricted to one type. Runs against the in-memory spatial index
+     * and booking intervals, sorted by distance (or by price when
+     * requested) with the other key breaking ties.
+     */
+    public List<AvailableVehicleResponse> searchAvailableVehicles(Double latitude, Double longitude, Double radius,
+                                                                  LocalDateTime startTime, LocalDateTime endTime,
+                                                                  String type, String sortBy) {
+        Comparator<AvailableVehicleResponse> byDistance =
+                Comparator.comparingDouble(AvailableVehicleResponse::getDistanceKm);
+        Comparator<AvailableVehicleResponse> byPrice =
+                Comparator.comparingDouble(result -> result.getVehicle().getHourlyPrice());
+        Comparator<AvailableVehicleResponse> order = "price".equalsIgnoreCase(sortBy)
+                ? byPrice.thenComparing(byDistance)
+                : byDistance.thenComparing(byPrice);
+
+        return findAvailableWithinRadius(latitude, longitude, radius).stream()
+                .filter(hit -> type == null || type.isBlank() || type.equalsIgnoreCase(hit.value().getType()))
+                .filter(hit -> bookingService.isVehicleAvailableForBooking(hit.value().getId(), startTime, endTime))
+                .map(hit -> new AvailableVehicleResponse(hit.value(), hit.distanceKm()))
+                .sorted(order)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Available vehicles within the radius, closest first. Served from the spatial index,
+     * or from the bounding-box Haversine query while the index is not loaded yet.
+     */
+    private List<SpatialGridIndex.Hit<Vehicle>> findAvailableWithinRadius(double latitude, double longitude,
+                                                                          double radius) {
+        if (spatialIndexReady) {
+            return availableVehicleIndex.findWithinRadius(latitude, longitude, radius);
+        }
+        GeoUtils.BoundingBox box = GeoUtils.boundingBox(latitude, longitude, radius);
+        return vehicleRepository.findVehiclesNearLocation(latitude, longitude, radius,
+                        box.minLatitude(), box.maxLatitude(), box.minLongitude(), box.maxLongitude()).stream()
+                .map(vehicle -> new SpatialGridIndex.Hit<>(vehicle, GeoUtils.haversineKm(
+                        latitude, longitude, vehicle.getLatitude(), vehicle.getLongitude())))
+                .sorted(Comparator.comparingDouble(SpatialGridIndex.Hit::distanceKm))
+                .collect(Collectors.toList());
     }
 
     /**
@@ -48,7 +125,9 @@ public class VehicleService {
      */
     @Transactional
     public Vehicle saveVehicle(Vehicle vehicle) {
-        return vehicleRepository.save(vehicle);
+        Vehicle savedVehicle = vehicleRepository.save(vehicle);
+        indexVehicleAfterCommit(savedVehicle);
+        return savedVehicle;
     }
 
     /**
@@ -60,7 +139,7 @@ public class VehicleService {
         if (vehicleOpt.isPresent()) {
             Vehicle vehicle = vehicleOpt.get();
             vehicle.setAvailability(availability);
-            vehicleRepository.save(vehicle);
+            indexVehicleAfterCommit(vehicleRepository.save(vehicle));
             return true;
         }
         return false;
@@ -72,5 +151,45 @@ public class VehicleService {
     @Transactional
     public void deleteVehicle(Long id) {
         vehicleRepository.deleteById(id);
+        TransactionHooks.afterCommit(() -> availableVehicleIndex.remove(id));
+    }
+
+    /**
+     * Keep the spatial index in line with a vehicle's current location and availability.
+     * A detached copy is indexed so later changes to the managed entity cannot leak in.
+     */
+    private void indexVehicle(Vehicle vehicle) {
+        Vehicle snapshot = snapshotIfIndexable(vehicle);
+        if (snapshot != null) {
+            availableVehicleIndex.put(snapshot.getId(), snapshot.getLatitude(), snapshot.getLongitude(), snapshot);
+        } else {
+            availableVehicleIndex.remove(vehicle.getId());
+        }
+    }
+
+    /**
+     * Same as {@link #indexVehicle}, applied once the surrounding transaction commits so
+     * rolled-back writes never reach the index. The snapshot is taken now, at write time.
+     */
+    private void indexVehicleAfterCommit(Vehicle vehicle) {
+        Long vehicleId = vehicle.getId();
+        Vehicle snapshot = snapshotIfIndexable(vehicle);
+        TransactionHooks.afterCommit(() -> {
+            if (snapshot != null) {
+                availableVehicleIndex.put(vehicleId, snapshot.getLatitude(), snapshot.getLongitude(), snapshot);
+            } else {
+                availableVehicleIndex.remove(vehicleId);
+            }
+        });
+    }
+
+    private static Vehicle snapshotIfIndexable(Vehicle vehicle) {
+        if (!Boolean.TRUE.equals(vehicle.getAvailability())
+                || vehicle.getLatitude() == null || vehicle.getLongitude() == null) {
+            return null;
+        }
+        return new Vehicle(vehicle.getId(), vehicle.getModel(), vehicle.getBrand(),
+                vehicle.getType(), vehicle.getLatitude(), vehicle.getLongitude(),
+                vehicle.getHourlyPrice(), vehicle.getImageUrl(), vehicle.getAvailability());
     }
 }
@@ -0,0 +1,98 @@
+package org.moto.motravel.service.bulk;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming RFC 4180 reader: one record at a time, quoted fields may hold commas,
+ * doubled quotes and line breaks. Fields longer than maxFieldLength are rejected so
+ * a stray quote cannot pull the rest of the input into memory.
+ */
+public class CsvReader {
+
+    private final Reader reader;
+    private final int maxFieldLength;
+    private int pushedBack = NONE;
+
+    private static final int NONE = -2;
+
+    public CsvReader(Reader reader, int maxFieldLength) {
+        this.reader = reader;
+        this.maxFieldLength = maxFieldLength;
+    }
+
+    /**
+     * Next record's fields, or null at the end of the input
+     *
+     * @throws IllegalArgumentException on an unterminated quote or an oversized field
+     */
+    public List<String> readRecord() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean fieldStarted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IllegalArgumentException("Unterminated quoted field");
+                }
+                if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        append(field, '"');
+                    } else {
+                        quoted = false;
+                        c = next;
+                        continue;
+                    }
+                } else {
+                    append(field, (char) c);
+                }
+            } else if (c == '"' && !fieldStarted) {
+                quoted = true;
+                fieldStarted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                fieldStarted = false;
+            } else if (c == '\n' || c == -1) {
+                break;
+            } else if (c == '\r') {
+                int next = read();
+                if (next != '\n') {
+                    pushedBack = next;
+                }
+                break;
+            } else {
+                append(field, (char) c);
+                fieldStarted = true;
+            }
+            c = read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private void append(StringBuilder field, char c) {
+        if (field.length() >= maxFieldLength) {
+            throw new IllegalArgumentException("Field exceeds " + maxFieldLength + " characters");
+        }
+        field.append(c);
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != NONE) {
+            int c = pushedBack;
+            pushedBack = NONE;
+            return c;
+        }
+        return reader.read();
+    }
+}
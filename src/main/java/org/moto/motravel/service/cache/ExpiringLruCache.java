@@ -0,0 +1,108 @@
+package org.moto.motravel.service.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache that evicts the least recently used entry once it
+ * holds maxEntries values and drops entries older than the time to live.
+ * Loads run outside the lock; a load that overlaps an invalidation still
+ * returns its value but does not cache it, so invalidated data is never
+ * written back.
+ */
+public class ExpiringLruCache<K, V> {
+
+    private final int maxEntries;
+    private final long timeToLiveNanos;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    private long invalidations;
+    private long hits;
+    private long misses;
+    private long loads;
+    private long totalLoadNanos;
+    private long evictions;
+    private long expirations;
+
+    public ExpiringLruCache(int maxEntries, Duration timeToLive) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Return the cached value for the key, loading and caching it on a miss.
+     * Null results from the loader are returned but not cached.
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        long invalidationsBeforeLoad;
+        synchronized (this) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null) {
+                if (System.nanoTime() - entry.loadedAt() < timeToLiveNanos) {
+                    hits++;
+                    return entry.value();
+                }
+                entries.remove(key);
+                expirations++;
+            }
+            misses++;
+            invalidationsBeforeLoad = invalidations;
+        }
+
+        long start = System.nanoTime();
+        V value = loader.apply(key);
+        long loadedAt = System.nanoTime();
+
+        synchronized (this) {
+            loads++;
+            totalLoadNanos += loadedAt - start;
+            if (value != null && invalidations == invalidationsBeforeLoad) {
+                entries.put(key, new Entry<>(value, loadedAt));
+                evictIfFull();
+            }
+        }
+        return value;
+    }
+
+    public synchronized void invalidate(K key) {
+        invalidations++;
+        entries.remove(key);
+    }
+
+    public synchronized void invalidateAll() {
+        invalidations++;
+        entries.clear();
+    }
+
+    public synchronized Stats stats() {
+        long requests = hits + misses;
+        return new Stats(entries.size(), maxEntries, hits, misses,
+                requests == 0 ? 0.0 : (double) hits / requests,
+                loads, loads == 0 ? 0.0 : totalLoadNanos / 1_000_000.0 / loads,
+                evictions, expirations);
+    }
+
+    private void evictIfFull() {
+        Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evictions++;
+        }
+    }
+
+    private record Entry<V>(V value, long loadedAt) {}
+
+    /**
+     * Point-in-time cache counters; evictions are size evictions, expirations are TTL drops
+     */
+    public record Stats(int size, int maxEntries, long hits, long misses, double hitRatio,
+                        long loads, double averageLoadMillis, long evictions, long expirations) {}
+}
@@ -0,0 +1,170 @@
+package org.moto.motravel.service.index;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hierarchical Web Mercator grid that keeps pre-aggregated point clusters for
+ * every map zoom level. At zoom z a cluster covers 1/{@value #CELLS_PER_TILE_AXIS}
+ * of a map tile per axis, which keeps clusters roughly the same size on screen.
+ * Each point contributes to exactly one cell per level, so inserts and removals
+ * touch {@code MAX_ZOOM + 1} cells.
+ */
+public class ClusterIndex {
+
+    public static final int MAX_ZOOM = 18;
+
+    private static final int CELL_BITS = 3;
+    private static final int CELLS_PER_TILE_AXIS = 1 << CELL_BITS;
+    private static final double MAX_MERCATOR_LATITUDE = 85.05112878;
+
+    private final List<Map<Long, Cell>> levels = new ArrayList<>(MAX_ZOOM + 1);
+    private final Map<Long, double[]> positions = new HashMap<>();
+
+    public ClusterIndex() {
+        for (int zoom = 0; zoom <= MAX_ZOOM; zoom++) {
+            levels.add(new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Replace the contents of the index
+     */
+    public synchronized void rebuild(List<KdTreeIndex.Point> points) {
+        positions.clear();
+        levels.forEach(Map::clear);
+        for (KdTreeIndex.Point point : points) {
+            add(point.id(), point.latitude(), point.longitude());
+        }
+    }
+
+    /**
+     * Insert a point, or move it if the id is already indexed
+     */
+    public synchronized void put(Long id, double latitude, double longitude) {
+        removeInternal(id);
+        add(id, latitude, longitude);
+    }
+
+    public synchronized void remove(Long id) {
+        removeInternal(id);
+    }
+
+    /**
+     * Return the clusters at the given zoom level whose cells intersect the box.
+     * A box with minLongitude greater than maxLongitude is treated as crossing the antimeridian.
+     */
+    public List<Cluster> clusters(double minLatitude, double minLongitude,
+                                  double maxLatitude, double maxLongitude, int zoom) {
+        int level = Math.min(Math.max(zoom, 0), MAX_ZOOM);
+        List<Cluster> clusters = new ArrayList<>();
+        if (minLongitude > maxLongitude) {
+            collect(level, minLatitude, minLongitude, maxLatitude, 180.0, clusters);
+            collect(level, minLatitude, -180.0, maxLatitude, maxLongitude, clusters);
+        } else {
+            collect(level, minLatitude, minLongitude, maxLatitude, maxLongitude, clusters);
+        }
+        return clusters;
+    }
+
+    private void collect(int level, double minLatitude, double minLongitude,
+                         double maxLatitude, double maxLongitude, List<Cluster> clusters) {
+        Map<Long, Cell> cells = levels.get(level);
+        int gridSize = gridSize(level);
+        int minX = cellX(minLongitude, gridSize);
+        int maxX = cellX(maxLongitude, gridSize);
+        // Mercator y grows southwards
+        int minY = cellY(maxLatitude, gridSize);
+        int maxY = cellY(minLatitude, gridSize);
+
+        long cellsInRange = (long) (maxX - minX + 1) * (maxY - minY + 1);
+        if (cellsInRange >= cells.size()) {
+            for (Map.Entry<Long, Cell> entry : cells.entrySet()) {
+                int x = (int) (entry.getKey() >>> 32);
+                int y = (int) (long) entry.getKey();
+                if (x >= minX && x <= maxX && y >= minY && y <= maxY) {
+                    clusters.add(entry.getValue().toCluster());
+                }
+            }
+        } else {
+            for (int x = minX; x <= maxX; x++) {
+                for (int y = minY; y <= maxY; y++) {
+                    Cell cell = cells.get(cellKey(x, y));
+                    if (cell != null) {
+                        clusters.add(cell.toCluster());
+                    }
+                }
+            }
+        }
+    }
+
+    private void add(Long id, double latitude, double longitude) {
+        positions.put(id, new double[] { latitude, longitude });
+        for (int level = 0; level <= MAX_ZOOM; level++) {
+            int gridSize = gridSize(level);
+            long key = cellKey(cellX(longitude, gridSize), cellY(latitude, gridSize));
+            levels.get(level).compute(key, (k, cell) -> cell == null
+                    ? new Cell(1, latitude, longitude, id)
+                    : new Cell(cell.count + 1, cell.latitudeSum + latitude,
+                               cell.longitudeSum + longitude, cell.idSum + id));
+        }
+    }
+
+    private void removeInternal(Long id) {
+        double[] position = positions.remove(id);
+        if (position == null) {
+            return;
+        }
+        double latitude = position[0];
+        double longitude = position[1];
+        for (int level = 0; level <= MAX_ZOOM; level++) {
+            int gridSize = gridSize(level);
+            long key = cellKey(cellX(longitude, gridSize), cellY(latitude, gridSize));
+            levels.get(level).computeIfPresent(key, (k, cell) -> cell.count <= 1
+                    ? null
+                    : new Cell(cell.count - 1, cell.latitudeSum - latitude,
+                               cell.longitudeSum - longitude, cell.idSum - id));
+        }
+    }
+
+    private static int gridSize(int level) {
+        return 1 << (level + CELL_BITS);
+    }
+
+    private static int cellX(double longitude, int gridSize) {
+        double x = (longitude + 180.0) / 360.0;
+        return clamp((int) Math.floor(x * gridSize), gridSize);
+    }
+
+    private static int cellY(double latitude, int gridSize) {
+        double lat = Math.toRadians(Math.max(-MAX_MERCATOR_LATITUDE, Math.min(MAX_MERCATOR_LATITUDE, latitude)));
+        double y = (1.0 - Math.log(Math.tan(lat) + 1.0 / Math.cos(lat)) / Math.PI) / 2.0;
+        return clamp((int) Math.floor(y * gridSize), gridSize);
+    }
+
+    private static int clamp(int value, int gridSize) {
+        return Math.min(Math.max(value, 0), gridSize - 1);
+    }
+
+    private static long cellKey(int x, int y) {
+        return ((long) x << 32) | (y & 0xffffffffL);
+    }
+
+    /**
+     * Immutable aggregate for one grid cell. The id sum identifies the
+     * remaining point exactly once the cell is down to a single member.
+     */
+    private record Cell(int count, double latitudeSum, double longitudeSum, long idSum) {
+        private Cluster toCluster() {
+            return new Cluster(latitudeSum / count, longitudeSum / count, count, count == 1 ? idSum : null);
+        }
+    }
+
+    /**
+     * A cluster centroid, its member count and, for single-point clusters, the point id
+     */
+    public record Cluster(double latitude, double longitude, int count, Long id) {}
+}
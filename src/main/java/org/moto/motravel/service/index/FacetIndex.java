@@ -0,0 +1,238 @@
+package org.moto.motravel.service.index;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Per-facet bitmaps used to evaluate state / adventure type filters with bitwise
+ * AND/OR instead of joins, and to count every facet value in the same pass.
+ * Documents are numbered with dense int ordinals, so the bitmaps grow with the
+ * number of indexed documents rather than with the largest id, and any long id
+ * can be indexed. Ordinals of removed documents are reused.
+ */
+public class FacetIndex {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final BitSet all = new BitSet();
+    private final Map<Long, BitSet> byState = new HashMap<>();
+    private final Map<Long, BitSet> byAdventureType = new HashMap<>();
+    private final Map<Long, Entry> entriesById = new HashMap<>();
+
+    // Document id per ordinal; only meaningful for ordinals set in "all"
+    private long[] idByOrdinal = new long[1024];
+    private int nextOrdinal;
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+
+    /**
+     * Index a document's facet values, replacing any previous ones
+     */
+    public void put(Long id, Long stateId, Set<Long> adventureTypeIds) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+            int ordinal = allocateOrdinal(id);
+            all.set(ordinal);
+            if (stateId != null) {
+                byState.computeIfAbsent(stateId, key -> new BitSet()).set(ordinal);
+            }
+            for (Long adventureTypeId : adventureTypeIds) {
+                byAdventureType.computeIfAbsent(adventureTypeId, key -> new BitSet()).set(ordinal);
+            }
+            entriesById.put(id, new Entry(ordinal, stateId, new HashSet<>(adventureTypeIds)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            all.clear();
+            byState.clear();
+            byAdventureType.clear();
+            entriesById.clear();
+            freeOrdinals.clear();
+            nextOrdinal = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids in the given state (if any) that have at least one of the given adventure types
+     * (if any), in ascending order
+     */
+    public long[] filter(Long stateId, Collection<Long> adventureTypeIds) {
+        lock.readLock().lock();
+        try {
+            BitSet result = (BitSet) all.clone();
+            if (stateId != null) {
+                result.and(stateBits(stateId));
+            }
+            if (adventureTypeIds != null && !adventureTypeIds.isEmpty()) {
+                result.and(anyAdventureTypeBits(adventureTypeIds));
+            }
+            long[] ids = new long[result.cardinality()];
+            int i = 0;
+            for (int ordinal = result.nextSetBit(0); ordinal >= 0; ordinal = result.nextSetBit(ordinal + 1)) {
+                ids[i++] = idByOrdinal[ordinal];
+            }
+            Arrays.sort(ids);
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Count matches per state and per adventure type. Each facet is counted with the
+     * other facet's filter applied but not its own, so clients can show how many
+     * results picking a different value would give. A non-null restriction (for example
+     * the ids matching a text search) limits every count to those ids.
+     */
+    public FacetCounts count(Collection<Long> restrictToIds, Long stateId, Collection<Long> adventureTypeIds) {
+        lock.readLock().lock();
+        try {
+            boolean filterTypes = adventureTypeIds != null && !adventureTypeIds.isEmpty();
+            BitSet base = (BitSet) all.clone();
+            if (restrictToIds != null) {
+                BitSet restrictTo = new BitSet();
+                for (Long id : restrictToIds) {
+                    Entry entry = entriesById.get(id);
+                    if (entry != null) {
+                        restrictTo.set(entry.ordinal());
+                    }
+                }
+                base.and(restrictTo);
+            }
+
+            BitSet typeFiltered = (BitSet) base.clone();
+            if (filterTypes) {
+                typeFiltered.and(anyAdventureTypeBits(adventureTypeIds));
+            }
+            BitSet stateFiltered = (BitSet) base.clone();
+            if (stateId != null) {
+                stateFiltered.and(stateBits(stateId));
+            }
+
+            Map<Long, Long> stateCounts = new HashMap<>();
+            for (Map.Entry<Long, BitSet> entry : byState.entrySet()) {
+                stateCounts.put(entry.getKey(), intersectionSize(typeFiltered, entry.getValue()));
+            }
+            Map<Long, Long> adventureTypeCounts = new HashMap<>();
+            for (Map.Entry<Long, BitSet> entry : byAdventureType.entrySet()) {
+                adventureTypeCounts.put(entry.getKey(), intersectionSize(stateFiltered, entry.getValue()));
+            }
+
+            BitSet matches = stateFiltered;
+            if (filterTypes) {
+                matches.and(typeFiltered);
+            }
+            return new FacetCounts(matches.cardinality(), stateCounts, adventureTypeCounts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long countByState(Long stateId) {
+        lock.readLock().lock();
+        try {
+            return stateBits(stateId).cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long countByAdventureType(Long adventureTypeId) {
+        lock.readLock().lock();
+        try {
+            BitSet bits = byAdventureType.get(adventureTypeId);
+            return bits != null ? bits.cardinality() : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private BitSet stateBits(Long stateId) {
+        return byState.getOrDefault(stateId, new BitSet());
+    }
+
+    private BitSet anyAdventureTypeBits(Collection<Long> adventureTypeIds) {
+        BitSet union = new BitSet();
+        for (Long adventureTypeId : adventureTypeIds) {
+            BitSet bits = byAdventureType.get(adventureTypeId);
+            if (bits != null) {
+                union.or(bits);
+            }
+        }
+        return union;
+    }
+
+    private static long intersectionSize(BitSet a, BitSet b) {
+        BitSet intersection = (BitSet) a.clone();
+        intersection.and(b);
+        return intersection.cardinality();
+    }
+
+    private int allocateOrdinal(Long id) {
+        Integer free = freeOrdinals.poll();
+        int ordinal = free != null ? free : nextOrdinal++;
+        if (ordinal >= idByOrdinal.length) {
+            idByOrdinal = Arrays.copyOf(idByOrdinal, idByOrdinal.length * 2);
+        }
+        idByOrdinal[ordinal] = id;
+        return ordinal;
+    }
+
+    private void removeInternal(Long id) {
+        Entry entry = entriesById.remove(id);
+        if (entry == null) {
+            return;
+        }
+        int bit = entry.ordinal();
+        all.clear(bit);
+        if (entry.stateId() != null) {
+            clearBit(byState, entry.stateId(), bit);
+        }
+        for (Long adventureTypeId : entry.adventureTypeIds()) {
+            clearBit(byAdventureType, adventureTypeId, bit);
+        }
+        freeOrdinals.push(bit);
+    }
+
+    private static void clearBit(Map<Long, BitSet> bitmaps, Long key, int bit) {
+        BitSet bits = bitmaps.get(key);
+        if (bits != null) {
+            bits.clear(bit);
+            if (bits.isEmpty()) {
+                bitmaps.remove(key);
+            }
+        }
+    }
+
+    private record Entry(int ordinal, Long stateId, Set<Long> adventureTypeIds) {}
+
+    /**
+     * Total matches plus the number of matches per state id and per adventure type id
+     */
+    public record FacetCounts(long total, Map<Long, Long> states, Map<Long, Long> adventureTypes) {}
+}
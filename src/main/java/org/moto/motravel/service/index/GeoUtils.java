@@ -0,0 +1,64 @@
+package org.moto.motravel.service.index;
+
+/**
+ * Distance helpers shared by the in-memory spatial indexes.
+ */
+public final class GeoUtils {
+
+    public static final double EARTH_RADIUS_KM = 6371.0;
+
+    private GeoUtils() {}
+
+    /**
+     * Great-circle distance in kilometres between two points (Haversine formula)
+     */
+    public static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    /**
+     * Latitude half-span in degrees that covers the given radius
+     */
+    public static double latitudeDelta(double radiusKm) {
+        return Math.toDegrees(radiusKm / EARTH_RADIUS_KM);
+    }
+
+    /**
+     * Longitude half-span in degrees that covers the given radius at the given latitude.
+     * Returns 180 near the poles, where every longitude is within reach.
+     */
+    public static double longitudeDelta(double latitude, double radiusKm) {
+        double sinAngular = Math.sin(Math.min(Math.PI / 2, radiusKm / EARTH_RADIUS_KM));
+        double cosLat = Math.cos(Math.toRadians(latitude));
+        if (sinAngular >= cosLat) {
+            return 180.0;
+        }
+        return Math.toDegrees(Math.asin(sinAngular / cosLat));
+    }
+
+    /**
+     * Latitude/longitude box enclosing the circle of the given radius. When the circle
+     * crosses a pole or the antimeridian the longitude range widens to the whole globe,
+     * so the box is always safe to use as a prefilter.
+     */
+    public static BoundingBox boundingBox(double latitude, double longitude, double radiusKm) {
+        double latDelta = latitudeDelta(radiusKm);
+        double lonDelta = longitudeDelta(latitude, radiusKm);
+        double minLat = Math.max(-90.0, latitude - latDelta);
+        double maxLat = Math.min(90.0, latitude + latDelta);
+        double minLon = longitude - lonDelta;
+        double maxLon = longitude + lonDelta;
+        if (minLon < -180.0 || maxLon > 180.0) {
+            minLon = -180.0;
+            maxLon = 180.0;
+        }
+        return new BoundingBox(minLat, maxLat, minLon, maxLon);
+    }
+
+    public record BoundingBox(double minLatitude, double maxLatitude, double minLongitude, double maxLongitude) {}
+}
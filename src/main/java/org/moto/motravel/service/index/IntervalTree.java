@@ -0,0 +1,164 @@
+package org.moto.motravel.service.index;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Interval tree of closed time ranges keyed by an id. Implemented as a treap
+ * ordered by (start, id) where every node also tracks the latest end in its
+ * subtree, so overlap queries, inserts and removals are O(log n) expected.
+ * Not thread-safe; callers guard each tree themselves.
+ */
+public class IntervalTree {
+
+    private final Map<Long, Node> nodesById = new HashMap<>();
+    private Node root;
+
+    /**
+     * Insert an interval, replacing any interval previously stored under the same id
+     */
+    public void put(Long id, LocalDateTime start, LocalDateTime end) {
+        remove(id);
+        Node node = new Node(id, start, end, ThreadLocalRandom.current().nextInt());
+        nodesById.put(id, node);
+        root = insert(root, node);
+    }
+
+    public void remove(Long id) {
+        Node node = nodesById.remove(id);
+        if (node != null) {
+            root = delete(root, node);
+        }
+    }
+
+    public boolean contains(Long id) {
+        return nodesById.containsKey(id);
+    }
+
+    public int size() {
+        return nodesById.size();
+    }
+
+    /**
+     * Check whether any stored interval overlaps [start, end], boundaries included
+     */
+    public boolean overlaps(LocalDateTime start, LocalDateTime end) {
+        Node node = root;
+        while (node != null) {
+            if (!node.start.isAfter(end) && !node.end.isBefore(start)) {
+                return true;
+            }
+            // Anything on the left can only overlap if its subtree reaches past our start
+            if (node.left != null && !node.left.maxEnd.isBefore(start)) {
+                node = node.left;
+            } else if (node.start.isAfter(end)) {
+                // Every interval on the right starts even later
+                return false;
+            } else {
+                node = node.right;
+            }
+        }
+        return false;
+    }
+
+    private Node insert(Node current, Node node) {
+        if (current == null) {
+            return node;
+        }
+        if (compare(node, current) < 0) {
+            current.left = insert(current.left, node);
+            if (current.left.priority > current.priority) {
+                current = rotateRight(current);
+            }
+        } else {
+            current.right = insert(current.right, node);
+            if (current.right.priority > current.priority) {
+                current = rotateLeft(current);
+            }
+        }
+        update(current);
+        return current;
+    }
+
+    private Node delete(Node current, Node node) {
+        if (current == null) {
+            return null;
+        }
+        int cmp = compare(node, current);
+        if (cmp < 0) {
+            current.left = delete(current.left, node);
+        } else if (cmp > 0) {
+            current.right = delete(current.right, node);
+        } else {
+            if (current.left == null) {
+                return current.right;
+            }
+            if (current.right == null) {
+                return current.left;
+            }
+            if (current.left.priority > current.right.priority) {
+                current = rotateRight(current);
+                current.right = delete(current.right, node);
+            } else {
+                current = rotateLeft(current);
+                current.left = delete(current.left, node);
+            }
+        }
+        update(current);
+        return current;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static void update(Node node) {
+        LocalDateTime maxEnd = node.end;
+        if (node.left != null && node.left.maxEnd.isAfter(maxEnd)) {
+            maxEnd = node.left.maxEnd;
+        }
+        if (node.right != null && node.right.maxEnd.isAfter(maxEnd)) {
+            maxEnd = node.right.maxEnd;
+        }
+        node.maxEnd = maxEnd;
+    }
+
+    private static int compare(Node a, Node b) {
+        int cmp = a.start.compareTo(b.start);
+        return cmp != 0 ? cmp : a.id.compareTo(b.id);
+    }
+
+    private static final class Node {
+        private final Long id;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+        private final int priority;
+        private LocalDateTime maxEnd;
+        private Node left;
+        private Node right;
+
+        private Node(Long id, LocalDateTime start, LocalDateTime end, int priority) {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+            this.priority = priority;
+            this.maxEnd = end;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package org.moto.motravel.service.index;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process full-text index with BM25 ranking. Documents are made of weighted
+ * fields; a field with weight w counts each of its tokens w times, which is a
+ * cheap way to rank title matches above body matches. Queries match documents
+ * containing every query term, and the last term also matches as a prefix so
+ * results stay useful while the user is still typing.
+ */
+public class InvertedIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // term -> (document id -> term frequency); sorted so prefixes can be expanded
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<Long, Map<String, Integer>> documentTerms = new HashMap<>();
+    private final Map<Long, Integer> documentLengths = new HashMap<>();
+    private long totalLength;
+
+    /**
+     * Index a document, replacing any previous version with the same id
+     */
+    public void put(Long id, List<Field> fields) {
+        Map<String, Integer> termFrequencies = new HashMap<>();
+        int length = 0;
+        for (Field field : fields) {
+            for (String token : tokenize(field.text())) {
+                termFrequencies.merge(token, field.weight(), Integer::sum);
+                length += field.weight();
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+            for (Map.Entry<String, Integer> entry : termFrequencies.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), term -> new HashMap<>()).put(id, entry.getValue());
+            }
+            documentTerms.put(id, termFrequencies);
+            documentLengths.put(id, length);
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documentTerms.clear();
+            documentLengths.clear();
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Return the documents matching every query term, best match first
+     */
+    public List<Match> search(String query) {
+        List<String> terms = tokenize(query);
+        List<Match> matches = new ArrayList<>();
+        if (terms.isEmpty()) {
+            return matches;
+        }
+
+        lock.readLock().lock();
+        try {
+            int documentCount = documentLengths.size();
+            if (documentCount == 0) {
+                return matches;
+            }
+            double averageLength = (double) totalLength / documentCount;
+
+            Map<Long, Double> scores = null;
+            for (int i = 0; i < terms.size(); i++) {
+                boolean prefix = i == terms.size() - 1;
+                Map<Long, Double> termScores = scoreTerm(terms.get(i), prefix, documentCount, averageLength);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    Map<Long, Double> combined = new HashMap<>();
+                    for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                        Double termScore = termScores.get(entry.getKey());
+                        if (termScore != null) {
+                            combined.put(entry.getKey(), entry.getValue() + termScore);
+                        }
+                    }
+                    scores = combined;
+                }
+                if (scores.isEmpty()) {
+                    return matches;
+                }
+            }
+
+            for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                matches.add(new Match(entry.getKey(), entry.getValue()));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        matches.sort((a, b) -> {
+            int cmp = Double.compare(b.score(), a.score());
+            return cmp != 0 ? cmp : a.id().compareTo(b.id());
+        });
+        return matches;
+    }
+
+    private Map<Long, Double> scoreTerm(String term, boolean prefix, int documentCount, double averageLength) {
+        Map<Long, Double> scores = new HashMap<>();
+        Map<String, Map<Long, Integer>> expansions = prefix
+                ? postings.subMap(term, true, term + Character.MAX_VALUE, false)
+                : postings.containsKey(term) ? Map.of(term, postings.get(term)) : Map.of();
+
+        for (Map<Long, Integer> documents : expansions.values()) {
+            double idf = Math.log(1 + (documentCount - documents.size() + 0.5) / (documents.size() + 0.5));
+            for (Map.Entry<Long, Integer> entry : documents.entrySet()) {
+                int frequency = entry.getValue();
+                double lengthRatio = documentLengths.get(entry.getKey()) / averageLength;
+                double score = idf * frequency * (K1 + 1) / (frequency + K1 * (1 - B + B * lengthRatio));
+                // A document matching several expansions of a prefix keeps its best one
+                scores.merge(entry.getKey(), score, Math::max);
+            }
+        }
+        return scores;
+    }
+
+    private void removeInternal(Long id) {
+        Map<String, Integer> terms = documentTerms.remove(id);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms.keySet()) {
+            Map<Long, Integer> documents = postings.get(term);
+            if (documents != null) {
+                documents.remove(id);
+                if (documents.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        totalLength -= documentLengths.remove(id);
+    }
+
+    /**
+     * Lowercase, strip accents and split on anything that is not a letter or digit
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return tokens;
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+        for (String token : normalized.split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * A piece of document text and how many times each of its tokens counts
+     */
+    public record Field(String text, int weight) {}
+
+    public record Match(Long id, double score) {}
+}
@@ -0,0 +1,241 @@
+package org.moto.motravel.service.index;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * KD-tree over points on the sphere used for k-nearest-neighbour lookups.
+ * Coordinates are stored as 3D unit vectors so that straight-line distance
+ * orders points exactly like great-circle distance and the antimeridian needs
+ * no special handling. Inserts go straight into the tree; removals are marked
+ * and the tree is rebalanced once it carries too many dead or deep nodes.
+ */
+public class KdTreeIndex {
+
+    private static final int DIMENSIONS = 3;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Node> nodesById = new HashMap<>();
+
+    private Node root;
+    private int deletedCount;
+    private int maxDepth;
+
+    /**
+     * Replace the contents of the tree with a balanced build of the given points
+     */
+    public void rebuild(List<Point> points) {
+        lock.writeLock().lock();
+        try {
+            nodesById.clear();
+            List<Node> nodes = new ArrayList<>(points.size());
+            for (Point point : points) {
+                Node node = new Node(point.id(), toVector(point.latitude(), point.longitude()));
+                nodesById.put(point.id(), node);
+                nodes.add(node);
+            }
+            rebalance(nodes);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Insert a point, or move it if the id is already indexed
+     */
+    public void put(Long id, double latitude, double longitude) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+            Node node = new Node(id, toVector(latitude, longitude));
+            nodesById.put(id, node);
+            insert(node);
+            rebalanceIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+            rebalanceIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return nodesById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Find the k points closest to the given location, closest first
+     */
+    public List<Neighbour> nearest(double latitude, double longitude, int k) {
+        List<Neighbour> result = new ArrayList<>();
+        if (k <= 0) {
+            return result;
+        }
+        double[] target = toVector(latitude, longitude);
+
+        // Max-heap on squared chord length holding the best k candidates seen so far
+        PriorityQueue<Candidate> best = new PriorityQueue<>(k + 1,
+                Comparator.comparingDouble(Candidate::squaredDistance).reversed());
+
+        lock.readLock().lock();
+        try {
+            search(root, target, k, best);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        while (!best.isEmpty()) {
+            Candidate candidate = best.poll();
+            double chord = Math.sqrt(candidate.squaredDistance());
+            double distanceKm = 2 * GeoUtils.EARTH_RADIUS_KM * Math.asin(Math.min(1.0, chord / 2));
+            result.add(0, new Neighbour(candidate.node().id, distanceKm));
+        }
+        return result;
+    }
+
+    private void search(Node node, double[] target, int k, PriorityQueue<Candidate> best) {
+        if (node == null) {
+            return;
+        }
+        if (!node.deleted) {
+            double squared = squaredDistance(node.vector, target);
+            if (best.size() < k) {
+                best.add(new Candidate(node, squared));
+            } else if (squared < best.peek().squaredDistance()) {
+                best.poll();
+                best.add(new Candidate(node, squared));
+            }
+        }
+
+        double diff = target[node.axis] - node.vector[node.axis];
+        Node near = diff < 0 ? node.left : node.right;
+        Node far = diff < 0 ? node.right : node.left;
+
+        search(near, target, k, best);
+        if (best.size() < k || diff * diff < best.peek().squaredDistance()) {
+            search(far, target, k, best);
+        }
+    }
+
+    private void insert(Node node) {
+        if (root == null) {
+            node.axis = 0;
+            root = node;
+            maxDepth = Math.max(maxDepth, 1);
+            return;
+        }
+        Node current = root;
+        int depth = 1;
+        while (true) {
+            depth++;
+            boolean goLeft = node.vector[current.axis] < current.vector[current.axis];
+            Node next = goLeft ? current.left : current.right;
+            if (next == null) {
+                node.axis = (current.axis + 1) % DIMENSIONS;
+                if (goLeft) {
+                    current.left = node;
+                } else {
+                    current.right = node;
+                }
+                break;
+            }
+            current = next;
+        }
+        maxDepth = Math.max(maxDepth, depth);
+    }
+
+    private void removeInternal(Long id) {
+        Node node = nodesById.remove(id);
+        if (node != null) {
+            node.deleted = true;
+            deletedCount++;
+        }
+    }
+
+    private void rebalanceIfNeeded() {
+        int live = nodesById.size();
+        int balancedDepth = 32 - Integer.numberOfLeadingZeros(Math.max(live, 1));
+        if (deletedCount > live || maxDepth > 2 * balancedDepth + 8) {
+            rebalance(new ArrayList<>(nodesById.values()));
+        }
+    }
+
+    private void rebalance(List<Node> nodes) {
+        deletedCount = 0;
+        maxDepth = 0;
+        root = build(nodes, 0, nodes.size(), 0);
+    }
+
+    private Node build(List<Node> nodes, int from, int to, int depth) {
+        if (from >= to) {
+            return null;
+        }
+        int axis = depth % DIMENSIONS;
+        nodes.subList(from, to).sort(Comparator.comparingDouble(n -> n.vector[axis]));
+        int median = (from + to) >>> 1;
+        Node node = nodes.get(median);
+        node.axis = axis;
+        node.left = build(nodes, from, median, depth + 1);
+        node.right = build(nodes, median + 1, to, depth + 1);
+        maxDepth = Math.max(maxDepth, depth + 1);
+        return node;
+    }
+
+    private static double[] toVector(double latitude, double longitude) {
+        double lat = Math.toRadians(latitude);
+        double lon = Math.toRadians(longitude);
+        double cosLat = Math.cos(lat);
+        return new double[] { cosLat * Math.cos(lon), cosLat * Math.sin(lon), Math.sin(lat) };
+    }
+
+    private static double squaredDistance(double[] a, double[] b) {
+        double dx = a[0] - b[0];
+        double dy = a[1] - b[1];
+        double dz = a[2] - b[2];
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    private static final class Node {
+        private final Long id;
+        private final double[] vector;
+        private int axis;
+        private boolean deleted;
+        private Node left;
+        private Node right;
+
+        private Node(Long id, double[] vector) {
+            this.id = id;
+            this.vector = vector;
+        }
+    }
+
+    private record Candidate(Node node, double squaredDistance) {}
+
+    /**
+     * A point to index
+     */
+    public record Point(Long id, double latitude, double longitude) {}
+
+    /**
+     * An indexed id together with its great-circle distance from the query point
+     */
+    public record Neighbour(Long id, double distanceKm) {}
+}
@@ -0,0 +1,144 @@
+package org.moto.motravel.service.index;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Uniform latitude/longitude grid that buckets entries by cell so that radius
+ * lookups only have to visit the cells overlapping the search circle.
+ * Reads are lock-free; writes are serialized per index.
+ */
+public class SpatialGridIndex<T> {
+
+    private final double cellSizeDegrees;
+    private final int columns;
+    private final int rows;
+
+    private final Map<Long, Map<Long, Entry<T>>> cells = new ConcurrentHashMap<>();
+    private final Map<Long, Entry<T>> entries = new ConcurrentHashMap<>();
+
+    public SpatialGridIndex(double cellSizeDegrees) {
+        if (cellSizeDegrees <= 0 || cellSizeDegrees > 90) {
+            throw new IllegalArgumentException("Cell size must be between 0 and 90 degrees");
+        }
+        this.cellSizeDegrees = cellSizeDegrees;
+        this.columns = (int) Math.ceil(360.0 / cellSizeDegrees);
+        this.rows = (int) Math.ceil(180.0 / cellSizeDegrees);
+    }
+
+    /**
+     * Insert or move an entry
+     */
+    public synchronized void put(Long id, double latitude, double longitude, T value) {
+        remove(id);
+        Entry<T> entry = new Entry<>(id, latitude, longitude, value);
+        long cell = cellKey(row(latitude), column(longitude));
+        cells.computeIfAbsent(cell, key -> new ConcurrentHashMap<>()).put(id, entry);
+        entries.put(id, entry);
+    }
+
+    /**
+     * Remove an entry if present
+     */
+    public synchronized void remove(Long id) {
+        Entry<T> previous = entries.remove(id);
+        if (previous == null) {
+            return;
+        }
+        long cell = cellKey(row(previous.latitude()), column(previous.longitude()));
+        Map<Long, Entry<T>> bucket = cells.get(cell);
+        if (bucket != null) {
+            bucket.remove(id);
+            if (bucket.isEmpty()) {
+                cells.remove(cell);
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        cells.clear();
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public T get(Long id) {
+        Entry<T> entry = entries.get(id);
+        return entry != null ? entry.value() : null;
+    }
+
+    /**
+     * Find every entry within the radius, closest first
+     */
+    public List<Hit<T>> findWithinRadius(double latitude, double longitude, double radiusKm) {
+        List<Hit<T>> hits = new ArrayList<>();
+        if (radiusKm <= 0 || entries.isEmpty()) {
+            return hits;
+        }
+
+        double latDelta = GeoUtils.latitudeDelta(radiusKm);
+        double lonDelta = GeoUtils.longitudeDelta(latitude, radiusKm);
+
+        int minRow = row(Math.max(-90.0, latitude - latDelta));
+        int maxRow = row(Math.min(90.0, latitude + latDelta));
+        int columnSpan = lonDelta >= 180.0 ? columns : (int) Math.ceil(2 * lonDelta / cellSizeDegrees) + 1;
+        int firstColumn = lonDelta >= 180.0 ? 0 : column(longitude - lonDelta);
+        columnSpan = Math.min(columnSpan, columns);
+
+        long cellsInRange = (long) (maxRow - minRow + 1) * columnSpan;
+        if (cellsInRange >= cells.size()) {
+            // Sparse grid: walking the occupied cells is cheaper than probing empty ones
+            for (Map<Long, Entry<T>> bucket : cells.values()) {
+                collect(bucket, latitude, longitude, radiusKm, hits);
+            }
+        } else {
+            for (int r = minRow; r <= maxRow; r++) {
+                for (int i = 0; i < columnSpan; i++) {
+                    int c = Math.floorMod(firstColumn + i, columns);
+                    Map<Long, Entry<T>> bucket = cells.get(cellKey(r, c));
+                    if (bucket != null) {
+                        collect(bucket, latitude, longitude, radiusKm, hits);
+                    }
+                }
+            }
+        }
+
+        hits.sort(Comparator.comparingDouble(Hit::distanceKm));
+        return hits;
+    }
+
+    private void collect(Map<Long, Entry<T>> bucket, double latitude, double longitude,
+                         double radiusKm, List<Hit<T>> hits) {
+        for (Entry<T> entry : bucket.values()) {
+            double distance = GeoUtils.haversineKm(latitude, longitude, entry.latitude(), entry.longitude());
+            if (distance <= radiusKm) {
+                hits.add(new Hit<>(entry.value(), distance));
+            }
+        }
+    }
+
+    private int row(double latitude) {
+        int r = (int) Math.floor((latitude + 90.0) / cellSizeDegrees);
+        return Math.min(Math.max(r, 0), rows - 1);
+    }
+
+    private int column(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180.0) / cellSizeDegrees), columns);
+    }
+
+    private static long cellKey(int row, int column) {
+        return ((long) row << 32) | (column & 0xffffffffL);
+    }
+
+    private record Entry<T>(Long id, double latitude, double longitude, T value) {}
+
+    /**
+     * An indexed value together with its distance from the query point
+     */
+    public record Hit<T>(T value, double distanceKm) {}
+}
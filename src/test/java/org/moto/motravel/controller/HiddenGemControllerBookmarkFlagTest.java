@@ -0,0 +1,91 @@
+package org.moto.motravel.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.moto.motravel.payload.response.HiddenGemSummary;
+import org.moto.motravel.repository.HiddenGemBookmarkRepository;
+import org.moto.motravel.security.services.UserDetailsImpl;
+import org.moto.motravel.service.HiddenGemBookmarkService;
+import org.moto.motravel.service.HiddenGemService;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * List pages flag the gems the signed-in user has bookmarked. The user id comes from the
+ * JWT principal; usernames such as "user" are not numeric.
+ */
+@ExtendWith(MockitoExtension.class)
+class HiddenGemControllerBookmarkFlagTest {
+
+    @Mock
+    private HiddenGemService hiddenGemService;
+
+    @Mock
+    private HiddenGemBookmarkRepository bookmarkRepository;
+
+    private final HiddenGemController controller = new HiddenGemController();
+
+    @BeforeEach
+    void setUp() {
+        HiddenGemBookmarkService bookmarkService = new HiddenGemBookmarkService();
+        ReflectionTestUtils.setField(bookmarkService, "bookmarkRepository", bookmarkRepository);
+        ReflectionTestUtils.setField(controller, "hiddenGemService", hiddenGemService);
+        ReflectionTestUtils.setField(controller, "bookmarkService", bookmarkService);
+
+        when(hiddenGemService.validateSortField("createdAt")).thenReturn("createdAt");
+        when(hiddenGemService.validateSortDirection("desc")).thenReturn("desc");
+        when(hiddenGemService.searchHiddenGems(null, null, null, 0, 10, "createdAt", "desc"))
+                .thenReturn(new PageImpl<>(List.of(summary(1L), summary(2L))));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void authenticatedListPageFlagsBookmarkedGems() {
+        UserDetailsImpl user = new UserDetailsImpl(7L, "user", "user@motravel.com", null,
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+        when(bookmarkRepository.findAllHiddenGemIdsByUserId(7L)).thenReturn(List.of(2L));
+
+        List<HiddenGemSummary> gems = listFirstPage();
+
+        assertThat(gems).extracting(HiddenGemSummary::getIsBookmarked).containsExactly(false, true);
+    }
+
+    @Test
+    void anonymousListPageCarriesNoFlag() {
+        List<HiddenGemSummary> gems = listFirstPage();
+
+        assertThat(gems).extracting(HiddenGemSummary::getIsBookmarked).containsOnlyNulls();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<HiddenGemSummary> listFirstPage() {
+        ResponseEntity<?> response = controller.getAllHiddenGems(
+                null, null, null, 0, 10, "createdAt", "desc", null, false);
+        return ((Page<HiddenGemSummary>) response.getBody()).getContent();
+    }
+
+    private static HiddenGemSummary summary(Long id) {
+        return new HiddenGemSummary(id, "Gem " + id, "Goa", 15.0, 74.0, LocalDateTime.of(2024, 1, 1, 0, 0));
+    }
+}
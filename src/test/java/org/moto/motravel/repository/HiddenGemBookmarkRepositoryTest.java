@@ -0,0 +1,82 @@
+package org.moto.motravel.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.moto.motravel.model.HiddenGem;
+import org.moto.motravel.model.State;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The single-statement bookmark writes. They use ON CONFLICT and a data-modifying CTE,
+ * which H2 does not accept even in PostgreSQL mode, so this runs against PostgreSQL
+ * (skipped when Docker is not available).
+ */
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class HiddenGemBookmarkRepositoryTest {
+
+    private static final Long USER_ID = 7L;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private HiddenGemBookmarkRepository bookmarkRepository;
+
+    private Long gemId;
+
+    @BeforeEach
+    void setUp() {
+        State state = entityManager.persist(new State("Goa"));
+        gemId = entityManager.persist(new HiddenGem("Butterfly Beach", "Reached by boat", state, 15.0, 74.0)).getId();
+        entityManager.flush();
+    }
+
+    @Test
+    void addIsIdempotent() {
+        assertThat(bookmarkRepository.insertIfAbsent(USER_ID, gemId)).isEqualTo(1);
+        assertThat(bookmarkRepository.insertIfAbsent(USER_ID, gemId)).isZero();
+
+        assertThat(bookmarkRepository.countByUserId(USER_ID)).isEqualTo(1);
+    }
+
+    @Test
+    void removeDeletesOnlyAnExistingBookmark() {
+        bookmarkRepository.insertIfAbsent(USER_ID, gemId);
+
+        assertThat(bookmarkRepository.deleteByUserIdAndHiddenGemId(USER_ID, gemId)).isEqualTo(1);
+        assertThat(bookmarkRepository.deleteByUserIdAndHiddenGemId(USER_ID, gemId)).isZero();
+        assertThat(bookmarkRepository.existsByUserIdAndHiddenGemId(USER_ID, gemId)).isFalse();
+    }
+
+    @Test
+    void toggleAddsThenRemoves() {
+        assertThat(bookmarkRepository.toggle(USER_ID, gemId)).isEqualTo(1);
+        assertThat(bookmarkRepository.existsByUserIdAndHiddenGemId(USER_ID, gemId)).isTrue();
+
+        assertThat(bookmarkRepository.toggle(USER_ID, gemId)).isEqualTo(-1);
+        assertThat(bookmarkRepository.existsByUserIdAndHiddenGemId(USER_ID, gemId)).isFalse();
+    }
+
+    @Test
+    void unknownGemIsRejectedByTheForeignKey() {
+        assertThatThrownBy(() -> bookmarkRepository.insertIfAbsent(USER_ID, gemId + 1_000_000))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+}
@@ -0,0 +1,85 @@
+package org.moto.motravel.repository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.moto.motravel.model.AdventureType;
+import org.moto.motravel.model.HiddenGem;
+import org.moto.motravel.model.State;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A page of full hidden gems must cost the same number of statements whatever its size,
+ * i.e. the collections are batch-fetched rather than loaded one select per gem.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class HiddenGemRepositoryPageQueryTest {
+
+    private static final int GEM_COUNT = 150;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private HiddenGemRepository hiddenGemRepository;
+
+    @BeforeEach
+    void setUp() {
+        State state = entityManager.persist(new State("Goa"));
+        AdventureType trekking = entityManager.persist(new AdventureType("Trekking"));
+        AdventureType camping = entityManager.persist(new AdventureType("Camping"));
+
+        List<HiddenGem> gems = new ArrayList<>();
+        for (int i = 0; i < GEM_COUNT; i++) {
+            HiddenGem gem = new HiddenGem("Gem " + i, "Description " + i, state, 15.0 + i * 0.001, 74.0);
+            gem.getAdventureTypes().add(trekking);
+            gem.getAdventureTypes().add(camping);
+            gem.getImageUrls().add("https://example.com/gems/" + i + ".jpg");
+            gems.add(gem);
+        }
+        hiddenGemRepository.saveAll(gems);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void statementCountDoesNotGrowWithPageSize() {
+        long smallPage = statementsToLoadPage(10);
+        long largePage = statementsToLoadPage(100);
+
+        assertThat(largePage).isEqualTo(smallPage);
+    }
+
+    private long statementsToLoadPage(int size) {
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Page<HiddenGem> page = hiddenGemRepository.findAll(PageRequest.of(0, size, Sort.by("id")));
+        // Touch every association the management view serializes
+        page.forEach(gem -> {
+            gem.getState().getName();
+            gem.getAdventureTypes().size();
+            gem.getImageUrls().size();
+        });
+
+        assertThat(page.getContent()).hasSize(size);
+        return statistics.getPrepareStatementCount();
+    }
+}
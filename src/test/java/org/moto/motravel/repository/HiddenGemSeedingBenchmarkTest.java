@@ -0,0 +1,148 @@
+package org.moto.motravel.repository;
+
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.metamodel.EntityType;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.moto.motravel.model.HiddenGem;
+import org.moto.motravel.model.State;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Seeding goes through pooled sequences and chunked saveAll so Hibernate can send the
+ * inserts as JDBC batches. Compared against saving and flushing one gem at a time, which
+ * is what IDENTITY ids forced: the row has to be inserted to learn its id.
+ * <p>
+ * The 100k-gem timing run is disabled by default; run it with
+ * {@code mvn test -Dtest=HiddenGemSeedingBenchmarkTest -Dbenchmarks=true}.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class HiddenGemSeedingBenchmarkTest {
+
+    // Rows saved and flushed together, as app.hidden-gems.import.batch-size does for the bulk import
+    private static final int CHUNK_SIZE = 1000;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private HiddenGemRepository hiddenGemRepository;
+
+    private State state;
+
+    @BeforeEach
+    void setUp() {
+        state = entityManager.persist(new State("Goa"));
+        entityManager.flush();
+    }
+
+    @Test
+    void generatedIdsComeFromPooledSequences() {
+        for (EntityType<?> entity : entityManager.getEntityManager().getMetamodel().getEntities()) {
+            // Ids without @GeneratedValue are assigned by the application (bookmark keys)
+            for (Field id : idFields(entity.getJavaType())) {
+                GeneratedValue generatedValue = id.getAnnotation(GeneratedValue.class);
+                if (generatedValue == null) {
+                    continue;
+                }
+                SequenceGenerator sequence = id.getAnnotation(SequenceGenerator.class);
+
+                assertThat(generatedValue.strategy()).as(entity.getName()).isEqualTo(GenerationType.SEQUENCE);
+                assertThat(sequence).as(entity.getName()).isNotNull();
+                assertThat(sequence.allocationSize()).as(entity.getName()).isGreaterThan(1);
+            }
+        }
+    }
+
+    @Test
+    void chunkedSaveAllSendsInsertsInBatches() {
+        int gems = 2 * CHUNK_SIZE;
+
+        SeedRun rowByRow = seed(gems, false);
+        SeedRun batched = seed(gems, true);
+
+        assertThat(rowByRow.inserts()).isEqualTo(gems);
+        assertThat(batched.inserts()).isEqualTo(gems);
+        // One insert statement per row before, one per JDBC batch (plus a sequence call
+        // per allocation block) now
+        assertThat(rowByRow.statements()).isGreaterThanOrEqualTo(gems);
+        assertThat(batched.statements()).isLessThan(gems / 10);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+    void seed100kGems() {
+        int gems = 100_000;
+
+        SeedRun rowByRow = seed(gems, false);
+        SeedRun batched = seed(gems, true);
+
+        System.out.printf("Seeding %,d hidden gems:%n", gems);
+        System.out.printf("  one at a time    %,8d statements %8d ms%n", rowByRow.statements(), rowByRow.millis());
+        System.out.printf("  chunked saveAll  %,8d statements %8d ms (%.1fx)%n", batched.statements(),
+                batched.millis(), (double) rowByRow.millis() / Math.max(batched.millis(), 1));
+        assertThat(batched.statements()).isLessThan(rowByRow.statements() / 10);
+    }
+
+    private SeedRun seed(int count, boolean batched) {
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        long start = System.nanoTime();
+
+        List<HiddenGem> chunk = new ArrayList<>(CHUNK_SIZE);
+        for (int i = 0; i < count; i++) {
+            HiddenGem gem = new HiddenGem("Gem " + i, "Description " + i, state,
+                    8.0 + (i % 2700) * 0.01, 68.0 + (i % 2900) * 0.01);
+            if (batched) {
+                chunk.add(gem);
+                if (chunk.size() == CHUNK_SIZE || i == count - 1) {
+                    hiddenGemRepository.saveAll(chunk);
+                    entityManager.flush();
+                    entityManager.clear();
+                    chunk.clear();
+                }
+            } else {
+                hiddenGemRepository.save(gem);
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        return new SeedRun(statistics.getEntityInsertCount(), statistics.getPrepareStatementCount(), millis);
+    }
+
+    private static List<Field> idFields(Class<?> type) {
+        List<Field> ids = new ArrayList<>();
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (field.isAnnotationPresent(Id.class)) {
+                    ids.add(field);
+                }
+            }
+        }
+        return ids;
+    }
+
+    private record SeedRun(long inserts, long statements, long millis) {}
+}
@@ -0,0 +1,185 @@
+package org.moto.motravel.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.moto.motravel.service.index.GeoUtils;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Radius search over 1M coordinates: the Haversine predicate alone (a full scan) against
+ * the same predicate behind the bounding-box prefilter on an indexed (latitude, longitude)
+ * pair, as findNearbyGems and findVehiclesNearLocation now run it. Prints the median time
+ * of each variant and the plan of the indexed one.
+ * <p>
+ * Disabled by default. Run on H2 with
+ * {@code mvn test -Dtest=NearbyQueryBenchmarkTest -Dbenchmarks=true}; add
+ * {@code -Dbenchmark.postgres.url=jdbc:postgresql://localhost:5432/motravel}
+ * (plus {@code .user} / {@code .password}) to run the PostgreSQL case as well. It works in
+ * its own hidden_gems_benchmark table and drops it afterwards.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class NearbyQueryBenchmarkTest {
+
+    private static final int ROWS = 1_000_000;
+    private static final int INSERT_BATCH = 10_000;
+    private static final int RUNS = 15;
+
+    // Goa, inside the spread of generated points (roughly India)
+    private static final double LATITUDE = 15.4909;
+    private static final double LONGITUDE = 73.8278;
+    private static final double RADIUS_KM = 50.0;
+
+    private static final String HAVERSINE =
+            "(6371 * acos(cos(radians(?)) * cos(radians(latitude)) * " +
+            "cos(radians(longitude) - radians(?)) + " +
+            "sin(radians(?)) * sin(radians(latitude)))) <= ?";
+
+    private static final String FULL_SCAN =
+            "SELECT id FROM hidden_gems_benchmark WHERE " + HAVERSINE;
+
+    private static final String BOUNDING_BOX =
+            "SELECT id FROM hidden_gems_benchmark WHERE " +
+            "latitude BETWEEN ? AND ? AND longitude BETWEEN ? AND ? AND " + HAVERSINE;
+
+    @Test
+    void h2() throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:nearby-benchmark", "sa", "")) {
+            run("H2", connection);
+        }
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark.postgres.url", matches = ".+")
+    void postgresql() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(System.getProperty("benchmark.postgres.url"),
+                System.getProperty("benchmark.postgres.user", "postgres"),
+                System.getProperty("benchmark.postgres.password", "postgres"))) {
+            run("PostgreSQL", connection);
+        }
+    }
+
+    private void run(String database, Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS hidden_gems_benchmark");
+            statement.execute("CREATE TABLE hidden_gems_benchmark " +
+                    "(id BIGINT PRIMARY KEY, latitude DOUBLE PRECISION, longitude DOUBLE PRECISION)");
+        }
+        try {
+            seed(connection);
+
+            long[] scanIds = query(connection, FULL_SCAN, false);
+            double scanMillis = medianMillis(connection, FULL_SCAN, false);
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE INDEX idx_hidden_gems_benchmark_location " +
+                        "ON hidden_gems_benchmark (latitude, longitude)");
+                if ("PostgreSQL".equals(database)) {
+                    statement.execute("ANALYZE hidden_gems_benchmark");
+                }
+            }
+            long[] boxIds = query(connection, BOUNDING_BOX, true);
+            double boxMillis = medianMillis(connection, BOUNDING_BOX, true);
+
+            // The prefilter must only skip rows the Haversine predicate rejects anyway
+            assertThat(boxIds).isNotEmpty().containsExactly(scanIds);
+
+            System.out.printf("%s, %,d rows, %d matches within %.0f km:%n", database, ROWS, boxIds.length, RADIUS_KM);
+            System.out.printf("  full scan            %8.2f ms%n", scanMillis);
+            System.out.printf("  bounding box + index %8.2f ms (%.1fx)%n", boxMillis, scanMillis / boxMillis);
+            System.out.println(plan(connection));
+        } finally {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("DROP TABLE hidden_gems_benchmark");
+            }
+        }
+    }
+
+    private void seed(Connection connection) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        Random random = new Random(42);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO hidden_gems_benchmark (id, latitude, longitude) VALUES (?, ?, ?)")) {
+            for (int i = 1; i <= ROWS; i++) {
+                insert.setLong(1, i);
+                insert.setDouble(2, 8.0 + random.nextDouble() * 27.0);
+                insert.setDouble(3, 68.0 + random.nextDouble() * 29.0);
+                insert.addBatch();
+                if (i % INSERT_BATCH == 0) {
+                    insert.executeBatch();
+                }
+            }
+            connection.commit();
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private double medianMillis(Connection connection, String sql, boolean boundingBox) throws SQLException {
+        // The first runs warm the caches and the JIT and are not counted
+        for (int i = 0; i < 3; i++) {
+            query(connection, sql, boundingBox);
+        }
+        double[] millis = new double[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            query(connection, sql, boundingBox);
+            millis[i] = (System.nanoTime() - start) / 1_000_000.0;
+        }
+        Arrays.sort(millis);
+        return millis[RUNS / 2];
+    }
+
+    private long[] query(Connection connection, String sql, boolean boundingBox) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            bind(statement, boundingBox);
+            List<Long> ids = new ArrayList<>();
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    ids.add(rows.getLong(1));
+                }
+            }
+            return ids.stream().mapToLong(Long::longValue).sorted().toArray();
+        }
+    }
+
+    private String plan(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + BOUNDING_BOX)) {
+            bind(statement, true);
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    plan.append("  ").append(rows.getString(1)).append('\n');
+                }
+            }
+            return plan.toString();
+        }
+    }
+
+    private void bind(PreparedStatement statement, boolean boundingBox) throws SQLException {
+        int index = 1;
+        if (boundingBox) {
+            GeoUtils.BoundingBox box = GeoUtils.boundingBox(LATITUDE, LONGITUDE, RADIUS_KM);
+            statement.setDouble(index++, box.minLatitude());
+            statement.setDouble(index++, box.maxLatitude());
+            statement.setDouble(index++, box.minLongitude());
+            statement.setDouble(index++, box.maxLongitude());
+        }
+        statement.setDouble(index++, LATITUDE);
+        statement.setDouble(index++, LONGITUDE);
+        statement.setDouble(index++, LATITUDE);
+        statement.setDouble(index, RADIUS_KM);
+    }
+}
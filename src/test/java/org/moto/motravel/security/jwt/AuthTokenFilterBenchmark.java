@@ -0,0 +1,195 @@
+package org.moto.motravel.security.jwt;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.moto.motravel.security.services.UserDetailsImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of authenticating one request with a bearer token, before and after tokens
+ * carried the user id and roles:
+ * <ul>
+ *     <li>legacyFilter - the previous filter: the key and parser are rebuilt, the token is
+ *     parsed twice and the user is loaded from users + user_roles (in-memory H2 here, so
+ *     the real database round trip is not even counted)</li>
+ *     <li>statelessFilter - the current filter with the verified-token cache disabled</li>
+ *     <li>statelessFilterWithCache - the current filter with the default cache</li>
+ * </ul>
+ * Run with {@code mvn test-compile} and then
+ * {@code java -cp target/test-classes:<test classpath> org.moto.motravel.security.jwt.AuthTokenFilterBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthTokenFilterBenchmark {
+
+    private static final String SECRET = "your_jwt_secret_key_here_make_it_long_and_secure_in_production";
+
+    private SingleConnectionDataSource dataSource;
+    private LegacyAuthTokenFilter legacyFilter;
+    private AuthTokenFilter statelessFilter;
+    private AuthTokenFilter cachedFilter;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        // One open connection, standing in for a warm connection pool
+        dataSource = new SingleConnectionDataSource("jdbc:h2:mem:jwt-benchmark", "sa", "", true);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE users (id BIGINT PRIMARY KEY, username VARCHAR(20) UNIQUE, " +
+                "email VARCHAR(50), password VARCHAR(120))");
+        jdbcTemplate.execute("CREATE TABLE user_roles (user_id BIGINT, role VARCHAR(255))");
+        jdbcTemplate.update("INSERT INTO users VALUES (1, 'user', 'user@motravel.com', 'hash')");
+        jdbcTemplate.update("INSERT INTO user_roles VALUES (1, 'ROLE_USER')");
+
+        legacyFilter = new LegacyAuthTokenFilter(jdbcTemplate);
+        statelessFilter = authTokenFilter(jwtUtils(0));
+        JwtUtils cachedJwtUtils = jwtUtils(10000);
+        cachedFilter = authTokenFilter(cachedJwtUtils);
+
+        UserDetailsImpl user = new UserDetailsImpl(1L, "user", "user@motravel.com", null,
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        token = cachedJwtUtils.generateJwtToken(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        dataSource.destroy();
+    }
+
+    @Benchmark
+    public Authentication legacyFilter() throws Exception {
+        return authenticate(legacyFilter);
+    }
+
+    @Benchmark
+    public Authentication statelessFilter() throws Exception {
+        return authenticate(statelessFilter);
+    }
+
+    @Benchmark
+    public Authentication statelessFilterWithCache() throws Exception {
+        return authenticate(cachedFilter);
+    }
+
+    private Authentication authenticate(OncePerRequestFilter filter) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/hidden-gems");
+        request.addHeader("Authorization", "Bearer " + token);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private static JwtUtils jwtUtils(int cacheEntries) {
+        JwtUtils jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 86400000);
+        ReflectionTestUtils.setField(jwtUtils, "verifiedTokenCacheMaxEntries", cacheEntries);
+        ReflectionTestUtils.setField(jwtUtils, "verifiedTokenCacheTtlSeconds", 300L);
+        jwtUtils.init();
+        return jwtUtils;
+    }
+
+    private static AuthTokenFilter authTokenFilter(JwtUtils jwtUtils) {
+        AuthTokenFilter filter = new AuthTokenFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtils", jwtUtils);
+        return filter;
+    }
+
+    /**
+     * The filter as it was before the user id and roles moved into the token
+     */
+    static class LegacyAuthTokenFilter extends OncePerRequestFilter {
+        private final JdbcTemplate jdbcTemplate;
+
+        LegacyAuthTokenFilter(JdbcTemplate jdbcTemplate) {
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                        FilterChain filterChain) throws ServletException, IOException {
+            String jwt = request.getHeader("Authorization").substring(7);
+            // validateJwtToken, then getUserNameFromJwtToken, each with a fresh key and parser
+            Jwts.parserBuilder().setSigningKey(key()).build().parseClaimsJws(jwt);
+            String username = Jwts.parserBuilder().setSigningKey(key()).build()
+                    .parseClaimsJws(jwt).getBody().getSubject();
+
+            UserDetails userDetails = loadUserByUsername(username);
+            UsernamePasswordAuthenticationToken authentication =
+                    new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+            authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+
+            filterChain.doFilter(request, response);
+        }
+
+        private Key key() {
+            return Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private UserDetails loadUserByUsername(String username) {
+            return jdbcTemplate.queryForObject(
+                    "SELECT id, username, email, password FROM users WHERE username = ?",
+                    (rs, rowNum) -> {
+                        long id = rs.getLong("id");
+                        List<SimpleGrantedAuthority> roles = jdbcTemplate.queryForList(
+                                "SELECT role FROM user_roles WHERE user_id = ?", String.class, id)
+                                .stream().map(SimpleGrantedAuthority::new).toList();
+                        return new UserDetailsImpl(id, rs.getString("username"), rs.getString("email"),
+                                rs.getString("password"), roles);
+                    },
+                    username);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AuthTokenFilterBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
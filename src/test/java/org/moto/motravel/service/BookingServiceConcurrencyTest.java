@@ -0,0 +1,122 @@
+package org.moto.motravel.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.moto.motravel.model.Booking;
+import org.moto.motravel.model.Vehicle;
+import org.moto.motravel.repository.BookingRepository;
+import org.moto.motravel.repository.VehicleRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hammers one vehicle with overlapping booking requests from many threads and checks
+ * that no two non-cancelled bookings end up overlapping.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@Import(BookingService.class)
+// Each booking must commit on its own thread, so the test itself runs without a transaction
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BookingServiceConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int REQUESTS_PER_THREAD = 25;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    private Long vehicleId;
+
+    @BeforeEach
+    void setUp() {
+        Vehicle vehicle = vehicleRepository.save(
+                new Vehicle(null, "Activa", "Honda", "bike", 15.49, 73.82, 50.0, null, true));
+        vehicleId = vehicle.getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingRepository.deleteAll();
+        vehicleRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentBookingsForOneVehicleNeverOverlap() throws Exception {
+        LocalDateTime base = LocalDateTime.of(2030, 1, 1, 0, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            long userId = t + 1;
+            workers.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+                    // A narrow window keeps most requests in conflict with each other
+                    LocalDateTime startTime = base.plusHours(random.nextInt(48));
+                    Booking booking = new Booking();
+                    booking.setUserId(userId);
+                    booking.setVehicleId(vehicleId);
+                    booking.setStartTime(startTime);
+                    booking.setEndTime(startTime.plusHours(1 + random.nextInt(4)));
+                    try {
+                        bookingService.createBooking(booking);
+                        accepted.incrementAndGet();
+                    } catch (IllegalStateException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        List<Booking> booked = bookingRepository.findByVehicleId(vehicleId).stream()
+                .filter(booking -> !"CANCELLED".equals(booking.getStatus()))
+                .sorted(Comparator.comparing(Booking::getStartTime))
+                .toList();
+
+        assertThat(accepted.get()).isPositive();
+        assertThat(accepted.get() + rejected.get()).isEqualTo(THREADS * REQUESTS_PER_THREAD);
+        assertThat(booked).hasSize(accepted.get());
+        // Same inclusive bounds as BookingRepository.isVehicleBookedInTimeRange
+        for (int i = 1; i < booked.size(); i++) {
+            assertThat(booked.get(i).getStartTime()).isAfter(booked.get(i - 1).getEndTime());
+        }
+    }
+}